@@ -0,0 +1,91 @@
+package com.ridehailing.benchmark;
+
+import com.ridehailing.trip.service.AuctionAssignment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solve time of the batch dispatch assignment for a window of trips against the fleet.
+ * Trips and drivers are spread over a 10km x 10km city; each trip sees its nearest
+ * {@code candidatesPerTrip} drivers, so candidatesPerTrip == drivers is the dense matrix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuctionAssignmentBenchmark {
+
+    private static final double CITY_SIZE_KM = 10.0;
+    private static final double UNASSIGNED_COST_KM = 10.0;
+    private static final double EPSILON_KM = 0.001;
+
+    @Param({"1000"})
+    private int trips;
+
+    @Param({"5000"})
+    private int drivers;
+
+    @Param({"20", "200", "5000"})
+    private int candidatesPerTrip;
+
+    private int[] candidateStart;
+    private int[] candidateDriver;
+    private double[] candidateCost;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double[] driverX = new double[drivers];
+        double[] driverY = new double[drivers];
+        for (int j = 0; j < drivers; j++) {
+            driverX[j] = random.nextDouble() * CITY_SIZE_KM;
+            driverY[j] = random.nextDouble() * CITY_SIZE_KM;
+        }
+
+        int k = Math.min(candidatesPerTrip, drivers);
+        candidateStart = new int[trips + 1];
+        candidateDriver = new int[trips * k];
+        candidateCost = new double[trips * k];
+
+        Integer[] order = new Integer[drivers];
+        double[] distance = new double[drivers];
+        for (int i = 0; i < trips; i++) {
+            double x = random.nextDouble() * CITY_SIZE_KM;
+            double y = random.nextDouble() * CITY_SIZE_KM;
+            for (int j = 0; j < drivers; j++) {
+                order[j] = j;
+                distance[j] = Math.hypot(driverX[j] - x, driverY[j] - y);
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(distance[a], distance[b]));
+
+            candidateStart[i] = i * k;
+            for (int c = 0; c < k; c++) {
+                candidateDriver[i * k + c] = order[c];
+                candidateCost[i * k + c] = distance[order[c]];
+            }
+        }
+        candidateStart[trips] = trips * k;
+    }
+
+    @Benchmark
+    public int[] solve() {
+        return AuctionAssignment.solve(trips, drivers, candidateStart, candidateDriver,
+                candidateCost, UNASSIGNED_COST_KM, EPSILON_KM);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ridehailing.benchmark;
+
+import com.ridehailing.common.util.DistanceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distances from one origin to a set of drivers around it:
+ * the scalar Haversine per pair versus the batch kernels of {@link DistanceCalculator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+
+    private static final double ORIGIN_LAT = 37.7749;
+    private static final double ORIGIN_LON = -122.4194;
+    private static final double RADIUS_KM = 5.0;
+    private static final int K = 10;
+
+    @Param({"1000", "100000"})
+    private int points;
+
+    private double[] latLon;
+    private double[] distances;
+    private int[] nearestIndex;
+    private double[] nearestDistance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        latLon = new double[2 * points];
+        for (int i = 0; i < points; i++) {
+            latLon[2 * i] = ORIGIN_LAT + (random.nextDouble() - 0.5) * 0.2;
+            latLon[2 * i + 1] = ORIGIN_LON + (random.nextDouble() - 0.5) * 0.2;
+        }
+        distances = new double[points];
+        nearestIndex = new int[K];
+        nearestDistance = new double[K];
+    }
+
+    @Benchmark
+    public double[] scalarHaversine() {
+        for (int i = 0; i < points; i++) {
+            distances[i] = DistanceCalculator.calculateDistance(ORIGIN_LAT, ORIGIN_LON, latLon[2 * i], latLon[2 * i + 1]);
+        }
+        return distances;
+    }
+
+    @Benchmark
+    public double[] batchApproximate() {
+        DistanceCalculator.approximateDistances(ORIGIN_LAT, ORIGIN_LON, latLon, points, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public void batchNearestWithRefinement(Blackhole blackhole) {
+        blackhole.consume(DistanceCalculator.nearest(ORIGIN_LAT, ORIGIN_LON, latLon, points,
+                RADIUS_KM, K, nearestIndex, nearestDistance));
+        blackhole.consume(nearestDistance);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ridehailing.benchmark;
+
+import com.ridehailing.driver.domain.DriverLocation;
+import com.ridehailing.driver.domain.DriverStatus;
+import com.ridehailing.driver.index.DriverSpatialIndex;
+import com.ridehailing.driver.repository.HashDriverLocationStore;
+import com.ridehailing.driver.service.DriverLocationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-driver lookup through {@link DriverLocationService#findNearbyDrivers} for synthetic
+ * fleets spread uniformly over a 40km x 40km metro area; 10% of the drivers are busy.
+ * Queries go through the default store, whose nearby search is served by the grid index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class NearbyDriversBenchmark {
+
+    private static final double CENTER_LAT = 37.7749;
+    private static final double CENTER_LON = -122.4194;
+    private static final double HALF_SPAN_DEG = 0.18;
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int drivers;
+
+    @Param({"10"})
+    private int maxDrivers;
+
+    private DriverLocationService driverLocationService;
+    private double[] queryLat;
+    private double[] queryLon;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverSpatialIndex index = new DriverSpatialIndex(1.0, 3600);
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < drivers; i++) {
+            index.put(DriverLocation.builder()
+                    .driverId((long) i)
+                    .latitude(CENTER_LAT + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG)
+                    .longitude(CENTER_LON + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG)
+                    .status(random.nextInt(10) == 0 ? DriverStatus.BUSY : DriverStatus.ONLINE)
+                    .lastUpdatedAt(now)
+                    .build());
+        }
+
+        // Only findNearby is exercised, which never touches the Redis repository
+        HashDriverLocationStore store = new HashDriverLocationStore(null, index, null, null);
+        driverLocationService = new DriverLocationService(store, null, null, null);
+        ReflectionTestUtils.setField(driverLocationService, "searchRadiusKm", 5.0);
+
+        queryLat = new double[QUERIES];
+        queryLon = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryLat[i] = CENTER_LAT + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG;
+            queryLon[i] = CENTER_LON + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG;
+        }
+    }
+
+    @Benchmark
+    public List<DriverLocation> findNearbyDrivers() {
+        next = (next + 1) & (QUERIES - 1);
+        return driverLocationService.findNearbyDrivers(queryLat[next], queryLon[next], maxDrivers);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ridehailing.benchmark;
+
+import com.ridehailing.common.cache.EntityCacheManager;
+import com.ridehailing.driver.domain.DriverStatus;
+import com.ridehailing.pricing.dto.PriceEstimateRequest;
+import com.ridehailing.pricing.dto.PriceEstimateResponse;
+import com.ridehailing.pricing.service.PricingService;
+import com.ridehailing.pricing.service.SurgeCalculator;
+import com.ridehailing.pricing.service.SurgeEngine;
+import com.ridehailing.pricing.service.ZoneDemandTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request pricing: the surge lookup against a published snapshot, the estimate with its
+ * BigDecimal rounding, and the final fare. Demand is concentrated downtown so that a share
+ * of the city's zones surge; the services are wired by hand with their default settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final double CENTER_LAT = 37.7749;
+    private static final double CENTER_LON = -122.4194;
+    private static final int REQUESTS = 4096;
+
+    @Param({"true", "false"})
+    private boolean surgeEnabled;
+
+    private SurgeCalculator surgeCalculator;
+    private PricingService pricingService;
+    private PriceEstimateRequest[] requests;
+    private BigDecimal surge;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ZoneDemandTracker tracker = new ZoneDemandTracker(2.0, 600, 120,
+                new EntityCacheManager(new SimpleMeterRegistry(), null, 1, 1, false));
+        surgeCalculator = new SurgeCalculator(tracker);
+        ReflectionTestUtils.setField(surgeCalculator, "surgeEnabled", surgeEnabled);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            // Riders cluster downtown, drivers spread evenly
+            double spread = random.nextDouble() < 0.7 ? 0.02 : 0.15;
+            tracker.recordRequestOpened((long) i, CENTER_LAT + random.nextGaussian() * spread,
+                    CENTER_LON + random.nextGaussian() * spread);
+        }
+        for (int i = 0; i < 1000; i++) {
+            tracker.recordDriverLocation((long) i, DriverStatus.ONLINE,
+                    CENTER_LAT + (random.nextDouble() - 0.5) * 0.3, CENTER_LON + (random.nextDouble() - 0.5) * 0.3);
+        }
+
+        SurgeEngine engine = new SurgeEngine(tracker, surgeCalculator);
+        ReflectionTestUtils.setField(engine, "maxSurgeMultiplier", 3.0);
+        ReflectionTestUtils.setField(engine, "smoothingFactor", 0.3);
+        ReflectionTestUtils.setField(engine, "deadband", 0.05);
+        ReflectionTestUtils.setField(engine, "maxStep", 0.25);
+        for (int i = 0; i < 10; i++) {
+            engine.refresh();
+        }
+
+        // Quotes and ETAs are not on the calculatePrice path
+        pricingService = new PricingService(surgeCalculator, null, null);
+        ReflectionTestUtils.setField(pricingService, "baseFare", 2.50);
+        ReflectionTestUtils.setField(pricingService, "perKmRate", 1.20);
+        ReflectionTestUtils.setField(pricingService, "perMinuteRate", 0.30);
+
+        requests = new PriceEstimateRequest[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            double originLat = CENTER_LAT + random.nextGaussian() * 0.05;
+            double originLon = CENTER_LON + random.nextGaussian() * 0.05;
+            requests[i] = PriceEstimateRequest.builder()
+                    .originLatitude(originLat)
+                    .originLongitude(originLon)
+                    .destinationLatitude(originLat + random.nextGaussian() * 0.05)
+                    .destinationLongitude(originLon + random.nextGaussian() * 0.05)
+                    .distanceKm(1 + random.nextDouble() * 15)
+                    .build();
+        }
+        surge = new BigDecimal("1.35");
+    }
+
+    private PriceEstimateRequest nextRequest() {
+        next = (next + 1) & (REQUESTS - 1);
+        return requests[next];
+    }
+
+    @Benchmark
+    public BigDecimal calculateSurge() {
+        PriceEstimateRequest request = nextRequest();
+        return surgeCalculator.calculateSurge(request.getOriginLatitude(), request.getOriginLongitude());
+    }
+
+    @Benchmark
+    public PriceEstimateResponse calculatePrice() {
+        return pricingService.calculatePrice(nextRequest());
+    }
+
+    @Benchmark
+    public BigDecimal calculateFinalFare() {
+        PriceEstimateRequest request = nextRequest();
+        return pricingService.calculateFinalFare(request.getDistanceKm(), 900, surge);
+    }
+}
@@ -0,0 +1,127 @@
+package com.ridehailing.benchmark;
+
+import com.ridehailing.routing.graph.AltRouter;
+import com.ridehailing.routing.graph.PathCost;
+import com.ridehailing.routing.graph.RoadGraph;
+import com.ridehailing.routing.graph.RoadGraphBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-to-point queries on a synthetic city: a square street grid with ~100 m blocks,
+ * random street speeds and one street in ten one-way. ALT is compared with plain
+ * Dijkstra (a single-target {@link AltRouter#routeToMany}) over the same query pairs.
+ * Pickup ETAs for {@value #CANDIDATES} drivers within ~2 km of a pickup are computed either
+ * with one reverse search ({@link AltRouter#routeFromMany}) or one ALT query per driver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+    private static final int QUERIES = 256;
+    private static final int CANDIDATES = 20;
+    private static final int CANDIDATE_SPREAD_BLOCKS = 20;
+
+    // side of the street grid: 100 -> 10k nodes, 300 -> 90k nodes (~30 km x 30 km)
+    @Param({"100", "300"})
+    private int side;
+
+    private AltRouter router;
+    private int[] sources;
+    private int[] targets;
+    private int[][] candidates;
+    private int next;
+    private final int[] time = new int[1];
+    private final int[] length = new int[1];
+    private final int[] candidateTime = new int[CANDIDATES];
+    private final int[] candidateLength = new int[CANDIDATES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        RoadGraphBuilder builder = RoadGraph.builder();
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                builder.addNode(40.70 + row * 0.0009, -74.00 + col * 0.0012);
+            }
+        }
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int node = row * side + col;
+                if (col + 1 < side) {
+                    builder.addRoad(node, node + 1, 100, 20 + random.nextInt(40), random.nextInt(10) == 0);
+                }
+                if (row + 1 < side) {
+                    builder.addRoad(node, node + side, 100, 20 + random.nextInt(40), random.nextInt(10) == 0);
+                }
+            }
+        }
+        router = new AltRouter(builder.build(), 8, 1, 0);
+
+        sources = new int[QUERIES];
+        targets = new int[QUERIES];
+        candidates = new int[QUERIES][CANDIDATES];
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = random.nextInt(side * side);
+            targets[i] = random.nextInt(side * side);
+            int row = targets[i] / side;
+            int col = targets[i] % side;
+            for (int c = 0; c < CANDIDATES; c++) {
+                int candidateRow = clamp(row + random.nextInt(2 * CANDIDATE_SPREAD_BLOCKS + 1) - CANDIDATE_SPREAD_BLOCKS);
+                int candidateCol = clamp(col + random.nextInt(2 * CANDIDATE_SPREAD_BLOCKS + 1) - CANDIDATE_SPREAD_BLOCKS);
+                candidates[i][c] = candidateRow * side + candidateCol;
+            }
+        }
+    }
+
+    private int clamp(int index) {
+        return Math.max(0, Math.min(side - 1, index));
+    }
+
+    @Benchmark
+    public PathCost alt() {
+        int i = next++ & (QUERIES - 1);
+        return router.route(sources[i], targets[i], Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int dijkstra() {
+        int i = next++ & (QUERIES - 1);
+        router.routeToMany(sources[i], new int[]{targets[i]}, Integer.MAX_VALUE, time, length);
+        return time[0];
+    }
+
+    @Benchmark
+    public int[] pickupEtasReverseSearch() {
+        int i = next++ & (QUERIES - 1);
+        router.routeFromMany(candidates[i], targets[i], Integer.MAX_VALUE, candidateTime, candidateLength);
+        return candidateTime;
+    }
+
+    @Benchmark
+    public int[] pickupEtasAltPerDriver() {
+        int i = next++ & (QUERIES - 1);
+        for (int c = 0; c < CANDIDATES; c++) {
+            PathCost path = router.route(candidates[i][c], targets[i], Integer.MAX_VALUE);
+            candidateTime[c] = path != null ? path.timeMillis() : PathCost.UNREACHABLE;
+        }
+        return candidateTime;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ridehailing.benchmark;
+
+import com.ridehailing.driver.pinglog.SegmentLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append throughput of the ping {@link SegmentLog} into a temporary directory, including
+ * rolling to a new 32 MiB segment every million records. Run with {@code -t 4} to measure
+ * contended appends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentLogBenchmark {
+
+    private Path directory;
+    private SegmentLog segmentLog;
+    private long driverId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ping-log-bench");
+        segmentLog = new SegmentLog(directory, TimeUnit.HOURS.toMillis(1), 1 << 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        segmentLog.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        long id = ++driverId;
+        segmentLog.append(id & 0xFFFF, 1_700_000_000_000L + id, 37.7749 + (id & 0xFF) * 1e-5,
+                -122.4194 - (id & 0xFF) * 1e-5, (byte) 0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ridehailing.benchmark;
+
+import com.ridehailing.common.util.Constants;
+import com.ridehailing.notification.dto.TripEventDto;
+import com.ridehailing.trip.domain.TripStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of trip events with the serializers configured for the Kafka producer and
+ * consumer (spring-kafka's JsonSerializer / JsonDeserializer), without type headers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripEventSerializationBenchmark {
+
+    private JsonSerializer<TripEventDto> serializer;
+    private JsonDeserializer<TripEventDto> deserializer;
+    private TripEventDto event;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        deserializer = new JsonDeserializer<>(TripEventDto.class);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+
+        event = TripEventDto.builder()
+                .tripId(1_234_567L)
+                .riderId(42_000L)
+                .driverId(77_000L)
+                .status(TripStatus.COMPLETED)
+                .originLatitude(37.7749295)
+                .originLongitude(-122.4194155)
+                .destinationLatitude(37.8043637)
+                .destinationLongitude(-122.2711137)
+                .estimatedFare(new BigDecimal("23.75"))
+                .finalFare(new BigDecimal("25.10"))
+                .timestamp(LocalDateTime.of(2024, 5, 1, 18, 30, 15, 123_000_000))
+                .build();
+        payload = serializer.serialize(Constants.TOPIC_TRIP_COMPLETED, event);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(Constants.TOPIC_TRIP_COMPLETED, event);
+    }
+
+    @Benchmark
+    public TripEventDto deserialize() {
+        return deserializer.deserialize(Constants.TOPIC_TRIP_COMPLETED, payload);
+    }
+}
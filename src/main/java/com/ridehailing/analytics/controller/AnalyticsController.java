@@ -30,7 +30,7 @@ public class AnalyticsController {
     @GetMapping("/driver")
     @PreAuthorize("hasRole('DRIVER')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getDriverStats() {
-        Long driverId = driverService.getCurrentDriver().getId();
+        Long driverId = driverService.getCurrentDriverId();
         Map<String, Object> stats = analyticsService.getDriverStats(driverId);
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
@@ -38,7 +38,7 @@ public class AnalyticsController {
     @GetMapping("/rider")
     @PreAuthorize("hasRole('RIDER')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getRiderStats() {
-        Long riderId = riderService.getCurrentRider().getId();
+        Long riderId = riderService.getCurrentRiderId();
         Map<String, Object> stats = analyticsService.getRiderStats(riderId);
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
@@ -6,6 +6,7 @@ import com.ridehailing.auth.dto.AuthResponse;
 import com.ridehailing.auth.dto.LoginRequest;
 import com.ridehailing.auth.dto.SignupRequest;
 import com.ridehailing.auth.repository.UserRepository;
+import com.ridehailing.common.cache.EntityCache;
 import com.ridehailing.common.exception.BusinessException;
 import com.ridehailing.common.security.CustomUserDetails;
 import com.ridehailing.driver.domain.Driver;
@@ -31,6 +32,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final EntityCache<String, User> userByEmailCache;
+    private final EntityCache<Long, Rider> riderByUserIdCache;
+    private final EntityCache<Long, Driver> driverByUserIdCache;
 
     @Transactional
     public AuthResponse signup(SignupRequest request) {
@@ -48,16 +52,21 @@ public class AuthService {
                 .build();
         
         user = userRepository.save(user);
+        userByEmailCache.put(user.getEmail(), user);
         log.info("User created with id: {}", user.getId());
 
         // Create role-specific profile
+        Long riderId = null;
+        Long driverId = null;
         if (request.getRole() == UserRole.RIDER) {
             Rider rider = Rider.builder()
                     .userId(user.getId())
                     .name(request.getName())
                     .phoneNumber(request.getPhoneNumber())
                     .build();
-            riderRepository.save(rider);
+            rider = riderRepository.save(rider);
+            riderByUserIdCache.put(user.getId(), rider);
+            riderId = rider.getId();
             log.info("Rider profile created for user: {}", user.getId());
         } else if (request.getRole() == UserRole.DRIVER) {
             Driver driver = Driver.builder()
@@ -65,11 +74,13 @@ public class AuthService {
                     .name(request.getName())
                     .phoneNumber(request.getPhoneNumber())
                     .build();
-            driverRepository.save(driver);
+            driver = driverRepository.save(driver);
+            driverByUserIdCache.put(user.getId(), driver);
+            driverId = driver.getId();
             log.info("Driver profile created for user: {}", user.getId());
         }
 
-        String token = jwtService.generateToken(new CustomUserDetails(user));
+        String token = jwtService.generateToken(new CustomUserDetails(user), riderId, driverId);
 
         return AuthResponse.builder()
                 .token(token)
@@ -89,10 +100,17 @@ public class AuthService {
                 )
         );
 
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = userByEmailCache.get(request.getEmail(), userRepository::findByEmail)
                 .orElseThrow(() -> new BusinessException("User not found"));
 
-        String token = jwtService.generateToken(new CustomUserDetails(user));
+        // Profile ids go into the token once here instead of being looked up on every request
+        Long riderId = user.getRole() == UserRole.RIDER
+                ? riderByUserIdCache.get(user.getId(), riderRepository::findByUserId).map(Rider::getId).orElse(null)
+                : null;
+        Long driverId = user.getRole() == UserRole.DRIVER
+                ? driverByUserIdCache.get(user.getId(), driverRepository::findByUserId).map(Driver::getId).orElse(null)
+                : null;
+        String token = jwtService.generateToken(new CustomUserDetails(user), riderId, driverId);
 
         log.info("Login successful for user: {}", user.getId());
 
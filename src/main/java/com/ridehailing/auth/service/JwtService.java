@@ -1,6 +1,10 @@
 package com.ridehailing.auth.service;
 
+import com.ridehailing.auth.domain.UserRole;
+import com.ridehailing.common.security.CustomUserDetails;
+import com.ridehailing.common.security.JwtPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -18,11 +22,23 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_RIDER_ID = "rid";
+    public static final String CLAIM_DRIVER_ID = "did";
 
-    @Value("${app.jwt.expiration}")
-    private long jwtExpiration;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+
+    public JwtService(
+            @Value("${app.jwt.secret}") String secret,
+            @Value("${app.jwt.expiration}") long jwtExpiration) {
+        // Decoded once; the key and the parser are immutable and shared between threads
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().setSigningKey(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -33,10 +49,34 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Token for the user; for application users it also carries the userId and role,
+     * so requests can be authenticated from the claims alone.
+     */
     public String generateToken(UserDetails userDetails) {
+        if (userDetails instanceof CustomUserDetails user) {
+            return generateToken(user, null, null);
+        }
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Token carrying the userId, role and the user's rider or driver profile id,
+     * so services can resolve the current profile without a lookup.
+     */
+    public String generateToken(CustomUserDetails user, Long riderId, Long driverId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getUserId());
+        claims.put(CLAIM_ROLE, user.getUser().getRole().name());
+        if (riderId != null) {
+            claims.put(CLAIM_RIDER_ID, riderId);
+        }
+        if (driverId != null) {
+            claims.put(CLAIM_DRIVER_ID, driverId);
+        }
+        return generateToken(claims, user);
+    }
+
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
@@ -52,34 +92,42 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verify the signature and expiry and return the claims, parsing the token once.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public Claims verify(String token) {
+        return extractAllClaims(token);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Principal carried by verified claims, or null for tokens issued without the userId and role claims.
+     */
+    public JwtPrincipal toPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        Number riderId = claims.get(CLAIM_RIDER_ID, Number.class);
+        Number driverId = claims.get(CLAIM_DRIVER_ID, Number.class);
+        return new JwtPrincipal(userId.longValue(), claims.getSubject(), UserRole.valueOf(role),
+                riderId != null ? riderId.longValue() : null,
+                driverId != null ? driverId.longValue() : null,
+                claims.getExpiration().getTime());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parser.parseClaimsJws(token).getBody();
     }
 }
@@ -0,0 +1,153 @@
+package com.ridehailing.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring lookup cache for rarely changing entities (lookup key -> entity).
+ * Only entities that were found are cached. Cached instances are detached and shared
+ * between threads, so callers read them and never modify or save them.
+ *
+ * Writes go through {@link #put} and {@link #invalidate}: they apply once the surrounding
+ * transaction commits and are broadcast so other nodes drop their copy. A miss parks a
+ * placeholder entry while it loads and caches the result only if the placeholder is still
+ * there, so a load that raced with a write or invalidation of the same key is not cached.
+ * When the cache is full, new entries are not cached until expired ones are swept.
+ *
+ * Metrics: entity.cache.requests{cache, result=hit|miss}, entity.cache.hit.ratio{cache},
+ * entity.cache.size{cache}
+ */
+public class EntityCache<K, V> {
+
+    private final String name;
+    private final Function<String, K> keyParser;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final EntityCacheManager manager;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    EntityCache(String name, Function<String, K> keyParser, int maxEntries, long ttlMillis,
+                EntityCacheManager manager, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.keyParser = keyParser;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.manager = manager;
+        this.hits = Counter.builder("entity.cache.requests")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("entity.cache.requests")
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("entity.cache.hit.ratio", this, EntityCache::hitRatio)
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("entity.cache.size", entries, Map::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAtMillis() > System.currentTimeMillis()) {
+            hits.increment();
+            return Optional.of(entry.value());
+        }
+        misses.increment();
+        // Already expired, so reads miss; compared by identity, and a write, invalidation
+        // or other load replaces or drops it
+        Entry<V> loading = new Entry<>(null, 0);
+        boolean parked = (entries.size() < maxEntries || entries.containsKey(key))
+                && entries.compute(key, (k, current) -> current == entry ? loading : current) == loading;
+        Optional<V> loaded = Optional.empty();
+        try {
+            loaded = loader.apply(key);
+        } finally {
+            if (parked) {
+                Optional<V> result = loaded;
+                entries.computeIfPresent(key, (k, current) -> current != loading ? current
+                        : result.map(this::expiring).orElse(null));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Write-through: cache the saved entity here and drop other nodes' copies once the
+     * surrounding transaction commits (immediately when there is none).
+     */
+    public void put(K key, V value) {
+        afterCommit(() -> {
+            entries.compute(key, (k, current) ->
+                    current != null || entries.size() < maxEntries ? expiring(value) : null);
+            manager.publish(name, key);
+        });
+    }
+
+    /**
+     * Drop the entry on every node once the surrounding transaction commits.
+     */
+    public void invalidate(K key) {
+        afterCommit(() -> {
+            invalidateLocally(key);
+            manager.publish(name, key);
+        });
+    }
+
+    void invalidateLocally(String key) {
+        invalidateLocally(keyParser.apply(key));
+    }
+
+    private void invalidateLocally(K key) {
+        entries.remove(key);
+    }
+
+    void evictExpired(long nowMillis) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= nowMillis);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    private Entry<V> expiring(V value) {
+        return new Entry<>(value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
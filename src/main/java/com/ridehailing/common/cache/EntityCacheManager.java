@@ -0,0 +1,102 @@
+package com.ridehailing.common.cache;
+
+import com.ridehailing.common.util.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Creates the {@link EntityCache}s and keeps them consistent across nodes: every local
+ * write publishes "node/cacheName:key" on a Redis channel, and messages from other nodes
+ * evict the named entry. If a publish fails, other nodes keep their copy until it expires.
+ * Other in-process stores can take part through {@link #subscribe} and {@link #publish}.
+ */
+@Component
+@Slf4j
+public class EntityCacheManager {
+
+    private final Map<String, EntityCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> subscribers = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final MeterRegistry meterRegistry;
+    private final StringRedisTemplate redisTemplate;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final boolean broadcast;
+
+    public EntityCacheManager(
+            MeterRegistry meterRegistry,
+            StringRedisTemplate redisTemplate,
+            @Value("${app.cache.entity.max-entries:10000}") int maxEntries,
+            @Value("${app.cache.entity.ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.cache.invalidation.enabled:true}") boolean broadcast) {
+        this.meterRegistry = meterRegistry;
+        this.redisTemplate = redisTemplate;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.broadcast = broadcast;
+    }
+
+    /**
+     * @param keyParser turns the key of an invalidation message back into a cache key
+     */
+    public <K, V> EntityCache<K, V> create(String name, Function<String, K> keyParser) {
+        EntityCache<K, V> cache = new EntityCache<>(name, keyParser, maxEntries, ttlMillis, this, meterRegistry);
+        subscribe(name, cache::invalidateLocally);
+        caches.put(name, cache);
+        return cache;
+    }
+
+    /**
+     * Receive the keys that other nodes publish under this name.
+     */
+    public void subscribe(String name, Consumer<String> onInvalidation) {
+        if (subscribers.putIfAbsent(name, onInvalidation) != null) {
+            throw new IllegalStateException("Invalidation name already in use: " + name);
+        }
+    }
+
+    public void publish(String cacheName, Object key) {
+        if (!broadcast) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(Constants.REDIS_CACHE_INVALIDATION_CHANNEL, nodeId + "/" + cacheName + ":" + key);
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast invalidation of {} in cache {}: {}", key, cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Handle an invalidation message; this node's own messages were already applied locally.
+     */
+    public void onInvalidation(String message) {
+        int origin = message.indexOf('/');
+        int separator = message.indexOf(':', origin + 1);
+        Consumer<String> subscriber = origin > 0 && separator > origin
+                ? subscribers.get(message.substring(origin + 1, separator))
+                : null;
+        if (subscriber == null) {
+            log.debug("Ignoring invalidation message: {}", message);
+            return;
+        }
+        if (!message.startsWith(nodeId + "/")) {
+            subscriber.accept(message.substring(separator + 1));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.entity.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        caches.values().forEach(cache -> cache.evictExpired(now));
+    }
+}
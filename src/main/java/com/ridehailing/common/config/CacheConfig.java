@@ -0,0 +1,39 @@
+package com.ridehailing.common.config;
+
+import com.ridehailing.auth.domain.User;
+import com.ridehailing.common.cache.EntityCache;
+import com.ridehailing.common.cache.EntityCacheManager;
+import com.ridehailing.driver.domain.Driver;
+import com.ridehailing.driver.domain.Vehicle;
+import com.ridehailing.rider.domain.Rider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-mostly profile lookups, injected by their generic type. Cached drivers only serve
+ * id lookups; their status, rating and trip count may be stale, so live status comes from
+ * DriverStatusCache and mutations load the driver from the repository.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public EntityCache<String, User> userByEmailCache(EntityCacheManager manager) {
+        return manager.create("users", key -> key);
+    }
+
+    @Bean
+    public EntityCache<Long, Rider> riderByUserIdCache(EntityCacheManager manager) {
+        return manager.create("riders", Long::valueOf);
+    }
+
+    @Bean
+    public EntityCache<Long, Driver> driverByUserIdCache(EntityCacheManager manager) {
+        return manager.create("drivers", Long::valueOf);
+    }
+
+    @Bean
+    public EntityCache<Long, Vehicle> vehicleByDriverIdCache(EntityCacheManager manager) {
+        return manager.create("vehicles", Long::valueOf);
+    }
+}
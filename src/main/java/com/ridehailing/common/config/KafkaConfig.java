@@ -19,6 +19,14 @@ public class KafkaConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic tripDriverAssignedTopic() {
+        return TopicBuilder.name(Constants.TOPIC_TRIP_DRIVER_ASSIGNED)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
     @Bean
     public NewTopic tripAcceptedTopic() {
         return TopicBuilder.name(Constants.TOPIC_TRIP_ACCEPTED)
@@ -1,13 +1,21 @@
 package com.ridehailing.common.config;
 
+import com.ridehailing.common.cache.EntityCacheManager;
+import com.ridehailing.common.util.Constants;
+import com.ridehailing.driver.repository.HashDriverLocationStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+
 @Configuration
 @EnableRedisRepositories(basePackages = "com.ridehailing.driver.repository")
 public class RedisConfig {
@@ -28,4 +36,34 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Evicts entity cache entries written on other nodes.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, EntityCacheManager entityCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> entityCacheManager.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(Constants.REDIS_CACHE_INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Applies driver location writes of other nodes to this node's grid index.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.driver.location.store", havingValue = "hash", matchIfMissing = true)
+    public RedisMessageListenerContainer driverLocationListenerContainer(
+            RedisConnectionFactory connectionFactory, HashDriverLocationStore hashDriverLocationStore) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> hashDriverLocationStore.onIndexUpdate(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(Constants.REDIS_DRIVER_LOCATION_CHANNEL));
+        return container;
+    }
 }
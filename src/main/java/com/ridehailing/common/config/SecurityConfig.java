@@ -1,6 +1,8 @@
 package com.ridehailing.common.config;
 
+import com.ridehailing.auth.domain.User;
 import com.ridehailing.auth.repository.UserRepository;
+import com.ridehailing.common.cache.EntityCache;
 import com.ridehailing.common.exception.ResourceNotFoundException;
 import com.ridehailing.common.security.CustomUserDetails;
 import com.ridehailing.common.security.JwtAuthenticationFilter;
@@ -28,11 +30,13 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserRepository userRepository;
+    private final EntityCache<String, User> userByEmailCache;
 
+    // The filter is injected here rather than into the constructor: it depends on
+    // userDetailsService(), so a constructor dependency would be circular
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
@@ -51,7 +55,7 @@ public class SecurityConfig {
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
+        return username -> userByEmailCache.get(username, userRepository::findByEmail)
                 .map(CustomUserDetails::new)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + username));
     }
@@ -2,11 +2,14 @@ package com.ridehailing.common.security;
 
 import com.ridehailing.auth.service.JwtService;
 import com.ridehailing.common.util.Constants;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,10 +23,12 @@ import java.io.IOException;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void doFilterInternal(
@@ -39,16 +44,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         final String jwt = authHeader.substring(7);
-        final String userEmail = jwtService.extractUsername(jwt);
         
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtPrincipal principal = authenticate(jwt);
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities()
+                        principal.getAuthorities()
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -57,4 +60,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Principal of a valid token, or null. Repeat tokens are answered from the verified-token
+     * cache; a new token is parsed and verified once, and only tokens issued without the
+     * userId and role claims need a user lookup.
+     */
+    private JwtPrincipal authenticate(String jwt) {
+        JwtPrincipal cached = verifiedTokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Claims claims;
+        try {
+            claims = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid or expired: the request continues unauthenticated and is rejected by the chain
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return null;
+        }
+        
+        JwtPrincipal principal = jwtService.toPrincipal(claims);
+        if (principal == null) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            if (!(userDetails instanceof CustomUserDetails user)) {
+                return null;
+            }
+            // Profile ids are left to the services, which look them up by userId
+            principal = new JwtPrincipal(user.getUserId(), user.getUsername(), user.getUser().getRole(),
+                    null, null, claims.getExpiration().getTime());
+        }
+        verifiedTokenCache.put(jwt, principal);
+        return principal;
+    }
 }
@@ -0,0 +1,29 @@
+package com.ridehailing.common.security;
+
+import com.ridehailing.auth.domain.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Authenticated user as asserted by a verified JWT. Built from the token's claims,
+ * so authenticating a request needs no user lookup.
+ *
+ * @param riderId         the user's rider profile id, null for other roles and for tokens without it
+ * @param driverId        the user's driver profile id, null for other roles and for tokens without it
+ * @param expiresAtMillis the token's exp claim; the principal is not reused past it
+ */
+public record JwtPrincipal(Long userId, String email, UserRole role, Long riderId, Long driverId,
+                           long expiresAtMillis) implements Principal {
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
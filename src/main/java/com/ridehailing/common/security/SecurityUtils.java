@@ -1,5 +1,6 @@
 package com.ridehailing.common.security;
 
+import com.ridehailing.auth.domain.UserRole;
 import com.ridehailing.common.exception.UnauthorizedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +17,10 @@ public class SecurityUtils {
         
         Object principal = authentication.getPrincipal();
         
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.email();
+        }
+        
         if (principal instanceof UserDetails) {
             return ((UserDetails) principal).getUsername();
         }
@@ -32,6 +37,10 @@ public class SecurityUtils {
         
         Object principal = authentication.getPrincipal();
         
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.userId();
+        }
+        
         if (principal instanceof CustomUserDetails) {
             return ((CustomUserDetails) principal).getUserId();
         }
@@ -39,6 +48,46 @@ public class SecurityUtils {
         throw new UnauthorizedException("Invalid authentication principal");
     }
 
+    public static UserRole getCurrentUserRole() {
+        Object principal = getPrincipal();
+        
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.role();
+        }
+        
+        if (principal instanceof CustomUserDetails) {
+            return ((CustomUserDetails) principal).getUser().getRole();
+        }
+        
+        throw new UnauthorizedException("Invalid authentication principal");
+    }
+
+    /**
+     * Rider profile id carried by the token, or null when the token has none
+     * (not a rider, or issued before profile ids were embedded).
+     */
+    public static Long getCurrentRiderId() {
+        return getPrincipal() instanceof JwtPrincipal jwtPrincipal ? jwtPrincipal.riderId() : null;
+    }
+
+    /**
+     * Driver profile id carried by the token, or null when the token has none
+     * (not a driver, or issued before profile ids were embedded).
+     */
+    public static Long getCurrentDriverId() {
+        return getPrincipal() instanceof JwtPrincipal jwtPrincipal ? jwtPrincipal.driverId() : null;
+    }
+
+    private static Object getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UnauthorizedException("No authenticated user found");
+        }
+        
+        return authentication.getPrincipal();
+    }
+
     private SecurityUtils() {
         // Utility class
     }
@@ -0,0 +1,74 @@
+package com.ridehailing.common.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Principals of tokens that already passed signature and expiry checks, so repeat requests
+ * with the same bearer token skip parsing and HMAC verification.
+ *
+ * Entries are keyed by the SHA-256 of the token (the raw token is not kept) and expire
+ * with the token's exp claim. When the cache is full new tokens are simply verified each time.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<String, JwtPrincipal> byTokenHash = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public VerifiedTokenCache(@Value("${app.jwt.cache.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cached principal, or null when the token is unknown or has expired
+     */
+    public JwtPrincipal get(String token) {
+        String key = hash(token);
+        JwtPrincipal principal = byTokenHash.get(key);
+        if (principal == null) {
+            return null;
+        }
+        if (principal.expiresAtMillis() <= System.currentTimeMillis()) {
+            byTokenHash.remove(key, principal);
+            return null;
+        }
+        return principal;
+    }
+
+    public void put(String token, JwtPrincipal principal) {
+        if (byTokenHash.size() < maxEntries) {
+            byTokenHash.put(hash(token), principal);
+        }
+    }
+
+    public int size() {
+        return byTokenHash.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        byTokenHash.values().removeIf(principal -> principal.expiresAtMillis() <= now);
+    }
+
+    private static String hash(String token) {
+        return HexFormat.of().formatHex(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -4,12 +4,17 @@ public class Constants {
     
     // Kafka Topics
     public static final String TOPIC_TRIP_REQUESTED = "trip.requested";
+    public static final String TOPIC_TRIP_DRIVER_ASSIGNED = "trip.driver-assigned";
     public static final String TOPIC_TRIP_ACCEPTED = "trip.accepted";
     public static final String TOPIC_TRIP_STARTED = "trip.started";
     public static final String TOPIC_TRIP_COMPLETED = "trip.completed";
     
     // Redis Keys
     public static final String REDIS_DRIVER_LOCATION_PREFIX = "driver:location:";
+    public static final String REDIS_DRIVER_RESERVATION_PREFIX = "driver:reservation:";
+    public static final String REDIS_PRICE_QUOTE_PREFIX = "pricing:quote:";
+    public static final String REDIS_CACHE_INVALIDATION_CHANNEL = "cache:invalidation";
+    public static final String REDIS_DRIVER_LOCATION_CHANNEL = "driver:location:updates";
     
     // Security
     public static final String AUTHORIZATION_HEADER = "Authorization";
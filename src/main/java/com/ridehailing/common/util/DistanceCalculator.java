@@ -3,11 +3,22 @@ package com.ridehailing.common.util;
 /**
  * Utility class for calculating distances between geographic coordinates.
  * Uses the Haversine formula for great-circle distance calculation.
+ *
+ * The batch methods work on packed coordinate arrays ({@code [lat0, lon0, lat1, lon1, ...]})
+ * from one origin. They rank with an equirectangular approximation that reuses the
+ * origin's cos(lat) and costs no trig per point; Haversine is only evaluated for the
+ * points that are returned. Within matching radii (a few km) the approximation is
+ * off by well under 0.1%.
  */
 public class DistanceCalculator {
 
     private static final double EARTH_RADIUS_KM = 6371.0;
 
+    /**
+     * Length of one degree of latitude (and of longitude at the equator) in kilometers.
+     */
+    public static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
     /**
      * Calculate distance between two points using Haversine formula.
      * 
@@ -29,4 +40,136 @@ public class DistanceCalculator {
         
         return EARTH_RADIUS_KM * c;
     }
+
+    public static double cosLatitude(double latitude) {
+        return Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * Haversine distance with the origin's cos(lat) precomputed (see {@link #cosLatitude(double)}).
+     */
+    public static double calculateDistance(double lat1, double lon1, double cosLat1, double lat2, double lon2) {
+        double sinHalfDLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinHalfDLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinHalfDLat * sinHalfDLat + cosLat1 * cosLatitude(lat2) * sinHalfDLon * sinHalfDLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Equirectangular approximation: exact enough for short distances, no trig per call.
+     */
+    public static double approximateDistance(double lat1, double lon1, double cosLat1, double lat2, double lon2) {
+        double dLat = lat2 - lat1;
+        double dLon = lon2 - lon1;
+        if (dLon > 180.0) {
+            dLon -= 360.0;
+        } else if (dLon < -180.0) {
+            dLon += 360.0;
+        }
+        double x = dLon * cosLat1;
+        return KM_PER_DEGREE * Math.sqrt(x * x + dLat * dLat);
+    }
+
+    /**
+     * Approximate distances from one origin to {@code count} packed points.
+     *
+     * @param latLon packed coordinates, {@code [lat0, lon0, lat1, lon1, ...]}
+     * @param out    receives one distance in kilometers per point
+     */
+    public static void approximateDistances(double originLat, double originLon, double[] latLon, int count, double[] out) {
+        double cosLat = cosLatitude(originLat);
+        for (int i = 0; i < count; i++) {
+            out[i] = approximateDistance(originLat, originLon, cosLat, latLon[2 * i], latLon[2 * i + 1]);
+        }
+    }
+
+    /**
+     * The {@code k} nearest packed points within {@code maxDistanceKm}, nearest first.
+     * Points are ranked with the equirectangular approximation; only the selected
+     * points get their Haversine distance computed.
+     *
+     * @param indexOut    receives the indices of the selected points (length at least k)
+     * @param distanceOut receives their Haversine distances in kilometers (length at least k)
+     * @return number of points selected
+     */
+    public static int nearest(double originLat, double originLon, double[] latLon, int count,
+                              double maxDistanceKm, int k, int[] indexOut, double[] distanceOut) {
+        if (k <= 0) {
+            return 0;
+        }
+        double cosLat = cosLatitude(originLat);
+
+        // Bounded max-heap on the approximate distance, kept in the output arrays
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            double distance = approximateDistance(originLat, originLon, cosLat, latLon[2 * i], latLon[2 * i + 1]);
+            if (distance > maxDistanceKm) {
+                continue;
+            }
+            if (size < k) {
+                siftUp(indexOut, distanceOut, size++, i, distance);
+            } else if (distance < distanceOut[0]) {
+                siftDown(indexOut, distanceOut, size, i, distance);
+            }
+        }
+
+        for (int j = 0; j < size; j++) {
+            int i = indexOut[j];
+            distanceOut[j] = calculateDistance(originLat, originLon, cosLat, latLon[2 * i], latLon[2 * i + 1]);
+        }
+        sortByDistance(indexOut, distanceOut, size);
+        return size;
+    }
+
+    private static void siftUp(int[] index, double[] distance, int position, int value, double key) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (distance[parent] >= key) {
+                break;
+            }
+            index[position] = index[parent];
+            distance[position] = distance[parent];
+            position = parent;
+        }
+        index[position] = value;
+        distance[position] = key;
+    }
+
+    // Replace the heap root (current farthest) and restore the max-heap order
+    private static void siftDown(int[] index, double[] distance, int size, int value, double key) {
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distance[child + 1] > distance[child]) {
+                child++;
+            }
+            if (distance[child] <= key) {
+                break;
+            }
+            index[position] = index[child];
+            distance[position] = distance[child];
+            position = child;
+        }
+        index[position] = value;
+        distance[position] = key;
+    }
+
+    // Insertion sort: k is small (tens of candidates)
+    private static void sortByDistance(int[] index, double[] distance, int size) {
+        for (int i = 1; i < size; i++) {
+            int value = index[i];
+            double key = distance[i];
+            int j = i - 1;
+            while (j >= 0 && distance[j] > key) {
+                index[j + 1] = index[j];
+                distance[j + 1] = distance[j];
+                j--;
+            }
+            index[j + 1] = value;
+            distance[j + 1] = key;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.ridehailing.common.util;
+
+/**
+ * Fixed-size latitude/longitude grid used to bucket coordinates into cells.
+ * Cells are square in degrees, so they narrow in kilometers away from the equator;
+ * callers converting a radius to a cell range should use {@link #colSpan(double, double)}.
+ */
+public class GeoGrid {
+
+    private final double cellSizeDeg;
+    private final int rows;
+    private final int cols;
+
+    public GeoGrid(double cellSizeKm) {
+        if (cellSizeKm <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSizeDeg = cellSizeKm / DistanceCalculator.KM_PER_DEGREE;
+        this.rows = (int) Math.ceil(180.0 / cellSizeDeg);
+        this.cols = (int) Math.ceil(360.0 / cellSizeDeg);
+    }
+
+    public double getCellSizeDeg() {
+        return cellSizeDeg;
+    }
+
+    public double getCellSizeKm() {
+        return cellSizeDeg * DistanceCalculator.KM_PER_DEGREE;
+    }
+
+    public int row(double latitude) {
+        int row = (int) Math.floor((latitude + 90.0) / cellSizeDeg);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    public int col(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / cellSizeDeg), cols);
+    }
+
+    public long cellId(double latitude, double longitude) {
+        return cellId(row(latitude), col(longitude));
+    }
+
+    /**
+     * Cell id for a row/column pair. Rows are clamped to the poles, columns wrap at the antimeridian.
+     */
+    public long cellId(int row, int col) {
+        int clampedRow = Math.max(0, Math.min(rows - 1, row));
+        return (long) clampedRow * cols + Math.floorMod(col, cols);
+    }
+
+    /**
+     * Number of rows either side of a point needed to cover the given radius.
+     */
+    public int rowSpan(double radiusKm) {
+        return (int) Math.ceil(radiusKm / DistanceCalculator.KM_PER_DEGREE / cellSizeDeg);
+    }
+
+    /**
+     * Number of columns either side of a point needed to cover the given radius at that latitude.
+     */
+    public int colSpan(double latitude, double radiusKm) {
+        double cosLat = Math.max(Math.cos(Math.toRadians(Math.abs(latitude) + rowSpan(radiusKm) * cellSizeDeg)), 0.01);
+        int span = (int) Math.ceil(radiusKm / (DistanceCalculator.KM_PER_DEGREE * cosLat) / cellSizeDeg);
+        return Math.min(span, cols / 2);
+    }
+}
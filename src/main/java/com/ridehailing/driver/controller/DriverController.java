@@ -2,6 +2,7 @@ package com.ridehailing.driver.controller;
 
 import com.ridehailing.common.dto.ApiResponse;
 import com.ridehailing.driver.dto.DriverProfileDto;
+import com.ridehailing.driver.dto.LocationBatchRequest;
 import com.ridehailing.driver.dto.LocationUpdateRequest;
 import com.ridehailing.driver.dto.VehicleDto;
 import com.ridehailing.driver.service.DriverService;
@@ -51,4 +52,10 @@ public class DriverController {
         driverService.updateLocation(request.getLatitude(), request.getLongitude());
         return ResponseEntity.ok(ApiResponse.success("Location updated", null));
     }
+
+    @PostMapping("/location/batch")
+    public ResponseEntity<ApiResponse<Void>> updateLocationBatch(@Valid @RequestBody LocationBatchRequest request) {
+        driverService.updateLocationBatch(request.getPoints());
+        return ResponseEntity.ok(ApiResponse.success("Locations updated", null));
+    }
 }
@@ -49,4 +49,7 @@ public class Driver {
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    @Version
+    private Long version;
 }
@@ -23,10 +23,8 @@ public class DriverLocation implements Serializable {
     @Id
     private Long driverId;
 
-    @Indexed
     private Double latitude;
 
-    @Indexed
     private Double longitude;
 
     @Indexed
@@ -0,0 +1,22 @@
+package com.ridehailing.driver.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationBatchRequest {
+
+    @NotEmpty(message = "At least one location point is required")
+    @Size(max = 100, message = "At most 100 location points per batch")
+    private List<@Valid LocationUpdateRequest> points;
+}
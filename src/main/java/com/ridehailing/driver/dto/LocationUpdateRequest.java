@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,4 +19,7 @@ public class LocationUpdateRequest {
     
     @NotNull(message = "Longitude is required")
     private Double longitude;
+
+    // Device timestamp of the fix; orders the points of a batch
+    private LocalDateTime recordedAt;
 }
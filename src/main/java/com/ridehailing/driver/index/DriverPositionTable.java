@@ -0,0 +1,364 @@
+package com.ridehailing.driver.index;
+
+import com.ridehailing.common.util.DistanceCalculator;
+import com.ridehailing.common.util.GeoGrid;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Structure-of-arrays table of driver positions, bucketed by grid cell.
+ *
+ * Each driver occupies one slot in parallel primitive arrays; slots of the same cell
+ * are chained through {@code next}/{@code prev} (an intrusive doubly linked list), so a
+ * position update rewrites a few array elements in place and a cell change relinks
+ * the slot. Queries walk the chains of the cells around the query point without
+ * allocating. Writers take the write lock, queries the read lock.
+ */
+public class DriverPositionTable {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final GeoGrid grid;
+    private final StampedLock lock = new StampedLock();
+
+    private long[] ids;
+    private double[] lat;
+    private double[] lon;
+    private byte[] status;
+    private long[] updatedMillis;
+    private long[] cell;
+    private int[] next;
+    private int[] prev;
+
+    private final LongIntHashMap slotById = new LongIntHashMap(INITIAL_CAPACITY);
+    private final LongIntHashMap headByCell = new LongIntHashMap(INITIAL_CAPACITY);
+
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    public DriverPositionTable(GeoGrid grid) {
+        this.grid = grid;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public void upsert(long driverId, double latitude, double longitude, byte driverStatus, long updatedAtMillis) {
+        long newCell = grid.cellId(latitude, longitude);
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotById.get(driverId);
+            if (slot == LongIntHashMap.MISSING) {
+                slot = allocateSlot();
+                ids[slot] = driverId;
+                slotById.put(driverId, slot);
+                link(slot, newCell);
+            } else if (cell[slot] != newCell) {
+                unlink(slot);
+                link(slot, newCell);
+            }
+            lat[slot] = latitude;
+            lon[slot] = longitude;
+            status[slot] = driverStatus;
+            updatedMillis[slot] = updatedAtMillis;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long driverId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotById.remove(driverId);
+            if (slot != LongIntHashMap.MISSING) {
+                release(slot);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove every driver last updated before {@code cutoffMillis}.
+     *
+     * @return number of drivers removed
+     */
+    public int removeOlderThan(long cutoffMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int removed = 0;
+            for (int slot = 0; slot < highWater; slot++) {
+                // Free slots keep their old id, so only slots the id still maps to are live
+                if (updatedMillis[slot] < cutoffMillis && slotById.get(ids[slot]) == slot) {
+                    slotById.remove(ids[slot]);
+                    release(slot);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * K nearest drivers with the given status, updated at or after {@code oldestAllowedMillis},
+     * within the radius. Cells are visited in rings around the query cell and the search
+     * stops once the next ring is provably farther than the current k-th best candidate.
+     * Ranking uses the equirectangular approximation; the winners get their Haversine
+     * distance and are written to {@code hits} nearest first.
+     *
+     * @return number of hits written
+     */
+    public int findNearest(double latitude, double longitude, double radiusKm, int k,
+                           byte requiredStatus, long oldestAllowedMillis, Hits hits) {
+        if (k <= 0) {
+            return 0;
+        }
+        hits.ensureCapacity(k);
+        double cosLat = DistanceCalculator.cosLatitude(latitude);
+
+        int centerRow = grid.row(latitude);
+        int centerCol = grid.col(longitude);
+        int maxRing = Math.max(grid.rowSpan(radiusKm), grid.colSpan(latitude, radiusKm));
+        // Narrowest cell edge within the searched area, used to bound the distance to unvisited rings
+        double minCellKm = grid.getCellSizeKm()
+                * Math.max(Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + maxRing * grid.getCellSizeDeg()))), 0.01);
+
+        int[] heapSlot = hits.slots;
+        double[] heapDistance = hits.distanceKm;
+        int size = 0;
+
+        long stamp = lock.readLock();
+        try {
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                    boolean edgeRow = Math.abs(row - centerRow) == ring;
+                    int step = edgeRow ? 1 : 2 * ring;
+                    for (int col = centerCol - ring; col <= centerCol + ring; col += step) {
+                        int slot = headByCell.get(grid.cellId(row, col));
+                        while (slot != NONE) {
+                            if (status[slot] == requiredStatus && updatedMillis[slot] >= oldestAllowedMillis) {
+                                double distance = DistanceCalculator.approximateDistance(
+                                        latitude, longitude, cosLat, lat[slot], lon[slot]);
+                                if (distance <= radiusKm) {
+                                    if (size < k) {
+                                        siftUp(heapSlot, heapDistance, size++, slot, distance);
+                                    } else if (distance < heapDistance[0]) {
+                                        siftDown(heapSlot, heapDistance, size, slot, distance);
+                                    }
+                                }
+                            }
+                            slot = next[slot];
+                        }
+                    }
+                }
+
+                // Everything not yet visited lies at least `ring` full cells away from the query point
+                double nextRingBoundKm = ring * minCellKm;
+                if (nextRingBoundKm > radiusKm || (size == k && nextRingBoundKm > heapDistance[0])) {
+                    break;
+                }
+            }
+
+            // Copy the winners out while the slots are still guaranteed to hold them
+            for (int i = 0; i < size; i++) {
+                int slot = heapSlot[i];
+                hits.driverIds[i] = ids[slot];
+                hits.latitudes[i] = lat[slot];
+                hits.longitudes[i] = lon[slot];
+                hits.updatedMillis[i] = updatedMillis[slot];
+                heapDistance[i] = DistanceCalculator.calculateDistance(
+                        latitude, longitude, cosLat, lat[slot], lon[slot]);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        hits.sort(size);
+        return size;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == ids.length) {
+            grow(ids.length * 2);
+        }
+        return highWater++;
+    }
+
+    private void release(int slot) {
+        unlink(slot);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void link(int slot, long cellId) {
+        int head = headByCell.get(cellId);
+        cell[slot] = cellId;
+        prev[slot] = NONE;
+        next[slot] = head == LongIntHashMap.MISSING ? NONE : head;
+        if (head != LongIntHashMap.MISSING) {
+            prev[head] = slot;
+        }
+        headByCell.put(cellId, slot);
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (after != NONE) {
+            prev[after] = before;
+        }
+        if (before != NONE) {
+            next[before] = after;
+        } else if (after != NONE) {
+            headByCell.put(cell[slot], after);
+        } else {
+            headByCell.remove(cell[slot]);
+        }
+        next[slot] = NONE;
+        prev[slot] = NONE;
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        lat = new double[capacity];
+        lon = new double[capacity];
+        status = new byte[capacity];
+        updatedMillis = new long[capacity];
+        cell = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        lat = Arrays.copyOf(lat, capacity);
+        lon = Arrays.copyOf(lon, capacity);
+        status = Arrays.copyOf(status, capacity);
+        updatedMillis = Arrays.copyOf(updatedMillis, capacity);
+        cell = Arrays.copyOf(cell, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+    }
+
+    private static void siftUp(int[] slots, double[] distance, int position, int slot, double key) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (distance[parent] >= key) {
+                break;
+            }
+            slots[position] = slots[parent];
+            distance[position] = distance[parent];
+            position = parent;
+        }
+        slots[position] = slot;
+        distance[position] = key;
+    }
+
+    // Replace the heap root (current farthest) and restore the max-heap order
+    private static void siftDown(int[] slots, double[] distance, int size, int slot, double key) {
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distance[child + 1] > distance[child]) {
+                child++;
+            }
+            if (distance[child] <= key) {
+                break;
+            }
+            slots[position] = slots[child];
+            distance[position] = distance[child];
+            position = child;
+        }
+        slots[position] = slot;
+        distance[position] = key;
+    }
+
+    /**
+     * Reusable result buffer for {@link #findNearest}; one per querying thread.
+     */
+    public static final class Hits {
+
+        private int[] slots = new int[0];
+        private long[] driverIds = new long[0];
+        private double[] latitudes = new double[0];
+        private double[] longitudes = new double[0];
+        private long[] updatedMillis = new long[0];
+        private double[] distanceKm = new double[0];
+
+        public long driverId(int i) {
+            return driverIds[i];
+        }
+
+        public double latitude(int i) {
+            return latitudes[i];
+        }
+
+        public double longitude(int i) {
+            return longitudes[i];
+        }
+
+        public long updatedMillis(int i) {
+            return updatedMillis[i];
+        }
+
+        public double distanceKm(int i) {
+            return distanceKm[i];
+        }
+
+        private void ensureCapacity(int k) {
+            if (slots.length < k) {
+                slots = new int[k];
+                driverIds = new long[k];
+                latitudes = new double[k];
+                longitudes = new double[k];
+                updatedMillis = new long[k];
+                distanceKm = new double[k];
+            }
+        }
+
+        // Insertion sort by distance: k is small (tens of candidates)
+        private void sort(int size) {
+            for (int i = 1; i < size; i++) {
+                long id = driverIds[i];
+                double latitude = latitudes[i];
+                double longitude = longitudes[i];
+                long updated = updatedMillis[i];
+                double distance = distanceKm[i];
+                int j = i - 1;
+                while (j >= 0 && distanceKm[j] > distance) {
+                    driverIds[j + 1] = driverIds[j];
+                    latitudes[j + 1] = latitudes[j];
+                    longitudes[j + 1] = longitudes[j];
+                    updatedMillis[j + 1] = updatedMillis[j];
+                    distanceKm[j + 1] = distanceKm[j];
+                    j--;
+                }
+                driverIds[j + 1] = id;
+                latitudes[j + 1] = latitude;
+                longitudes[j + 1] = longitude;
+                updatedMillis[j + 1] = updated;
+                distanceKm[j + 1] = distance;
+            }
+        }
+    }
+}
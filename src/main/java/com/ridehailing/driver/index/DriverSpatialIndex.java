@@ -0,0 +1,93 @@
+package com.ridehailing.driver.index;
+
+import com.ridehailing.common.util.GeoGrid;
+import com.ridehailing.driver.domain.DriverLocation;
+import com.ridehailing.driver.domain.DriverStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory grid index over the latest known driver locations.
+ * Maintained incrementally on every location write so nearest-driver queries only
+ * visit the cells around the query point instead of every driver.
+ * Positions live in a primitive {@link DriverPositionTable}; only the k results of a
+ * query are materialised as {@link DriverLocation} objects. Drivers not updated within the
+ * location TTL are skipped by queries and removed by a periodic sweep.
+ */
+@Component
+@Slf4j
+public class DriverSpatialIndex {
+
+    private final DriverPositionTable table;
+    private final long maxAgeMillis;
+
+    private final ThreadLocal<DriverPositionTable.Hits> hitsBuffer =
+            ThreadLocal.withInitial(DriverPositionTable.Hits::new);
+
+    public DriverSpatialIndex(
+            @Value("${app.driver.location.index-cell-size-km:1.0}") double cellSizeKm,
+            @Value("${app.driver.location.ttl-seconds:3600}") long ttlSeconds) {
+        this.table = new DriverPositionTable(new GeoGrid(cellSizeKm));
+        this.maxAgeMillis = ttlSeconds * 1000;
+    }
+
+    public void put(DriverLocation location) {
+        put(location.getDriverId(), location.getLatitude(), location.getLongitude(),
+                location.getStatus(), updatedAtMillis(location));
+    }
+
+    public void put(long driverId, double latitude, double longitude, DriverStatus status, long updatedAtMillis) {
+        table.upsert(driverId, latitude, longitude, (byte) status.ordinal(), updatedAtMillis);
+    }
+
+    public static long updatedAtMillis(DriverLocation location) {
+        return location.getLastUpdatedAt() != null
+                ? location.getLastUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+    }
+
+    public void remove(Long driverId) {
+        table.remove(driverId);
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.driver.location.sweep-interval-ms:60000}")
+    public void sweepStale() {
+        int removed = table.removeOlderThan(System.currentTimeMillis() - maxAgeMillis);
+        if (removed > 0) {
+            log.debug("Removed {} stale drivers from the spatial index", removed);
+        }
+    }
+
+    /**
+     * K-nearest online drivers within the radius, ordered by distance (nearest first).
+     */
+    public List<DriverLocation> findNearest(double latitude, double longitude, double radiusKm, int k) {
+        DriverPositionTable.Hits hits = hitsBuffer.get();
+        int count = table.findNearest(latitude, longitude, radiusKm, k,
+                (byte) DriverStatus.ONLINE.ordinal(), System.currentTimeMillis() - maxAgeMillis, hits);
+
+        List<DriverLocation> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(DriverLocation.builder()
+                    .driverId(hits.driverId(i))
+                    .latitude(hits.latitude(i))
+                    .longitude(hits.longitude(i))
+                    .status(DriverStatus.ONLINE)
+                    .lastUpdatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(hits.updatedMillis(i)), ZoneId.systemDefault()))
+                    .build());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ridehailing.driver.pinglog;
+
+import com.ridehailing.driver.domain.DriverStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Durable local record of every driver location ping, for replay, analytics and heatmaps,
+ * kept in a {@link SegmentLog} instead of Postgres. Disabled unless
+ * {@code app.driver.location.ping-log.enabled} is set.
+ */
+@Component
+@Slf4j
+public class LocationPingLog {
+
+    private final SegmentLog segmentLog;
+    private final long retentionMillis;
+
+    public LocationPingLog(
+            @Value("${app.driver.location.ping-log.enabled:false}") boolean enabled,
+            @Value("${app.driver.location.ping-log.directory:data/ping-log}") String directory,
+            @Value("${app.driver.location.ping-log.segment-window-minutes:60}") long segmentWindowMinutes,
+            @Value("${app.driver.location.ping-log.records-per-segment:4194304}") int recordsPerSegment,
+            @Value("${app.driver.location.ping-log.retention-hours:72}") long retentionHours) {
+        this.segmentLog = enabled
+                ? new SegmentLog(Path.of(directory), Duration.ofMinutes(segmentWindowMinutes).toMillis(), recordsPerSegment)
+                : null;
+        this.retentionMillis = Duration.ofHours(retentionHours).toMillis();
+        if (enabled) {
+            log.info("Location ping log enabled in {}", Path.of(directory).toAbsolutePath());
+        }
+    }
+
+    public boolean isEnabled() {
+        return segmentLog != null;
+    }
+
+    public void append(Long driverId, DriverStatus status, double latitude, double longitude,
+                       LocalDateTime recordedAt) {
+        if (segmentLog == null) {
+            return;
+        }
+        try {
+            segmentLog.append(driverId, recordedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    latitude, longitude, (byte) status.ordinal());
+        } catch (RuntimeException e) {
+            // The log is a side channel; a full disk must not fail location updates
+            log.warn("Failed to append ping of driver {}: {}", driverId, e.getMessage());
+        }
+    }
+
+    /**
+     * Visit the pings recorded in [from, to) without materialising them.
+     */
+    public long scan(LocalDateTime from, LocalDateTime to, PingRecordVisitor visitor) {
+        if (segmentLog == null) {
+            return 0;
+        }
+        return segmentLog.scan(from.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                to.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), visitor);
+    }
+
+    @Scheduled(fixedDelayString = "${app.driver.location.ping-log.flush-interval-ms:1000}")
+    public void flush() {
+        if (segmentLog != null) {
+            segmentLog.force();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.driver.location.ping-log.retention-check-interval-ms:600000}")
+    public void enforceRetention() {
+        if (segmentLog == null) {
+            return;
+        }
+        int deleted = segmentLog.deleteSegmentsBefore(System.currentTimeMillis() - retentionMillis);
+        if (deleted > 0) {
+            log.info("Deleted {} expired ping log segments", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (segmentLog != null) {
+            segmentLog.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ridehailing.driver.pinglog;
+
+/**
+ * Receives the records of a {@link SegmentLog} scan as primitives, straight from the mapped file.
+ */
+@FunctionalInterface
+public interface PingRecordVisitor {
+
+    void visit(long driverId, long timestampMillis, double latitude, double longitude, byte status);
+}
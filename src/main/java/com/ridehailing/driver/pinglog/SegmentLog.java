@@ -0,0 +1,252 @@
+package com.ridehailing.driver.pinglog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of fixed-width location records in memory-mapped segment files.
+ *
+ * Each segment covers one time window (by append time) and holds at most
+ * {@code recordsPerSegment} records; the writer rolls to a new file when either runs out.
+ * Files are named {@code pings-<windowStartMillis>-<part>.seg}, so name order is time order.
+ *
+ * Record layout (32 bytes, little endian):
+ * <pre>
+ *  0  long  driverId
+ *  8  long  timestampMillis   written last; 0 marks the end of the segment
+ * 16  int   latitude  * 1e7
+ * 20  int   longitude * 1e7
+ * 24  byte  status
+ * 25  7 bytes reserved
+ * </pre>
+ *
+ * There is a single writer: {@link #append} is synchronized and only stores into the mapped
+ * buffer, so the cost per record is a few memory writes. Durability comes from {@link #force}
+ * (called periodically) and from the page cache surviving a process crash. Rolling to a new
+ * segment leaves the old one to the next {@link #force}, so no append waits for a disk flush.
+ */
+public final class SegmentLog implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 32;
+
+    private static final String PREFIX = "pings-";
+    private static final String SUFFIX = ".seg";
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private final Path directory;
+    private final long windowMillis;
+    private final int recordsPerSegment;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    // Rolled-over segments not yet flushed
+    private List<MappedByteBuffer> retired = new ArrayList<>();
+    private long windowStart = -1;
+    private int part;
+    private int position;
+
+    public SegmentLog(Path directory, long windowMillis, int recordsPerSegment) {
+        if ((long) recordsPerSegment * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segments are limited to 2 GiB");
+        }
+        this.directory = directory;
+        this.windowMillis = windowMillis;
+        this.recordsPerSegment = recordsPerSegment;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void append(long driverId, long timestampMillis, double latitude, double longitude,
+                                    byte status) {
+        long now = System.currentTimeMillis();
+        if (buffer == null || now - windowStart >= windowMillis || position == recordsPerSegment) {
+            roll(now);
+        }
+        int offset = position * RECORD_SIZE;
+        buffer.putLong(offset, driverId);
+        buffer.putInt(offset + 16, (int) Math.round(latitude * COORDINATE_SCALE));
+        buffer.putInt(offset + 20, (int) Math.round(longitude * COORDINATE_SCALE));
+        buffer.put(offset + 24, status);
+        buffer.putLong(offset + 8, timestampMillis);
+        position++;
+    }
+
+    /**
+     * Flush segments rolled over since the last call and the written part of the active
+     * segment to disk.
+     */
+    public void force() {
+        MappedByteBuffer active;
+        List<MappedByteBuffer> rolled;
+        synchronized (this) {
+            active = buffer;
+            rolled = retired;
+            retired = new ArrayList<>();
+        }
+        rolled.forEach(MappedByteBuffer::force);
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    /**
+     * Visit the records of all segments whose window overlaps [fromMillis, toMillis),
+     * keeping those with a timestamp in that range. Records are read in place from the
+     * mapped files; nothing is copied or allocated per record.
+     *
+     * @return number of records visited
+     */
+    public long scan(long fromMillis, long toMillis, PingRecordVisitor visitor) {
+        long visited = 0;
+        for (Path segment : segments()) {
+            long start = windowStartOf(segment);
+            if (start >= toMillis || start + windowMillis <= fromMillis) {
+                continue;
+            }
+            visited += scanSegment(segment, fromMillis, toMillis, visitor);
+        }
+        return visited;
+    }
+
+    /**
+     * Delete segments whose window ended before the cutoff.
+     *
+     * @return number of deleted segments
+     */
+    public int deleteSegmentsBefore(long cutoffMillis) {
+        int deleted = 0;
+        long activeWindow;
+        synchronized (this) {
+            activeWindow = windowStart;
+        }
+        for (Path segment : segments()) {
+            long start = windowStartOf(segment);
+            if (start != activeWindow && start + windowMillis <= cutoffMillis) {
+                try {
+                    Files.deleteIfExists(segment);
+                    deleted++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized void close() {
+        retired.forEach(MappedByteBuffer::force);
+        retired.clear();
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        closeChannel();
+    }
+
+    /**
+     * Segment files in time order.
+     */
+    public List<Path> segments() {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            files.forEach(segments::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private static long scanSegment(Path segment, long fromMillis, long toMillis, PingRecordVisitor visitor) {
+        long visited = 0;
+        try (FileChannel reader = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer records = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+            records.order(ByteOrder.LITTLE_ENDIAN);
+            int limit = records.capacity() - RECORD_SIZE;
+            for (int offset = 0; offset <= limit; offset += RECORD_SIZE) {
+                long timestamp = records.getLong(offset + 8);
+                if (timestamp == 0) {
+                    break;
+                }
+                if (timestamp >= fromMillis && timestamp < toMillis) {
+                    visitor.visit(
+                            records.getLong(offset),
+                            timestamp,
+                            records.getInt(offset + 16) / COORDINATE_SCALE,
+                            records.getInt(offset + 20) / COORDINATE_SCALE,
+                            records.get(offset + 24));
+                    visited++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return visited;
+    }
+
+    private void roll(long now) {
+        if (buffer != null) {
+            // The mapping outlives its channel; the scheduled force() flushes it
+            retired.add(buffer);
+            buffer = null;
+        }
+        closeChannel();
+
+        long window = now - Math.floorMod(now, windowMillis);
+        part = window == windowStart ? part + 1 : nextPart(window);
+        windowStart = window;
+        Path file = directory.resolve(String.format("%s%013d-%04d%s", PREFIX, window, part, SUFFIX));
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            buffer = null;
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+    }
+
+    // After a restart within the same window, continue after the parts already on disk
+    private int nextPart(long window) {
+        String prefix = String.format("%s%013d-", PREFIX, window);
+        int next = 0;
+        for (Path segment : segments()) {
+            String name = segment.getFileName().toString();
+            if (name.startsWith(prefix)) {
+                next = Math.max(next, Integer.parseInt(name.substring(prefix.length(), name.length() - SUFFIX.length())) + 1);
+            }
+        }
+        return next;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            channel = null;
+        }
+    }
+
+    private static long windowStartOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.indexOf('-', PREFIX.length())));
+    }
+}
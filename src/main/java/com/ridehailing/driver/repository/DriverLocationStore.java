@@ -0,0 +1,32 @@
+package com.ridehailing.driver.repository;
+
+import com.ridehailing.driver.domain.DriverLocation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage for the latest known driver positions.
+ * Implementations are selected with {@code app.driver.location.store}:
+ * {@code hash} (Redis hash repository + in-memory grid index, default) or
+ * {@code geo} (Redis GEO sorted sets, radius queries answered server-side).
+ */
+public interface DriverLocationStore {
+
+    void save(DriverLocation location);
+
+    /**
+     * Write a batch of locations, in as few round trips as the backend allows.
+     */
+    void saveAll(Collection<DriverLocation> locations);
+
+    Optional<DriverLocation> findById(Long driverId);
+
+    void deleteById(Long driverId);
+
+    /**
+     * The {@code limit} nearest online drivers within the radius, ordered by distance (nearest first).
+     */
+    List<DriverLocation> findNearby(double latitude, double longitude, double radiusKm, int limit);
+}
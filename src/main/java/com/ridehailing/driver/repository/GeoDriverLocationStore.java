@@ -0,0 +1,192 @@
+package com.ridehailing.driver.repository;
+
+import com.ridehailing.common.util.Constants;
+import com.ridehailing.driver.domain.DriverLocation;
+import com.ridehailing.driver.domain.DriverStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Location store backed by Redis GEO sorted sets, one per driver status.
+ * Radius queries run server-side with GEOSEARCH ... BYRADIUS ASC COUNT n,
+ * so only the matching members travel over the wire.
+ *
+ * Keys:
+ * - driver:geo:{STATUS}       GEO set of driver ids
+ * - driver:geo:heartbeat      driver id scored by last update, used to sweep stale members
+ * - driver:location:{id}      hash with the latest position snapshot (expires with the TTL)
+ */
+@Repository
+@ConditionalOnProperty(name = "app.driver.location.store", havingValue = "geo")
+@Slf4j
+public class GeoDriverLocationStore implements DriverLocationStore {
+
+    private static final String GEO_KEY_PREFIX = "driver:geo:";
+    private static final String HEARTBEAT_KEY = GEO_KEY_PREFIX + "heartbeat";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public GeoDriverLocationStore(
+            StringRedisTemplate redisTemplate,
+            @Value("${app.driver.location.ttl-seconds:3600}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    @Override
+    public void save(DriverLocation location) {
+        saveAll(List.of(location));
+    }
+
+    /**
+     * All writes of the batch go out in a single pipeline.
+     */
+    @Override
+    public void saveAll(Collection<DriverLocation> locations) {
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (DriverLocation location : locations) {
+                    write(ops, location, now);
+                }
+                return null;
+            }
+        });
+    }
+
+    private void write(RedisOperations<String, String> ops, DriverLocation location, long now) {
+        String member = location.getDriverId().toString();
+        LocalDateTime updatedAt = location.getLastUpdatedAt() != null
+                ? location.getLastUpdatedAt()
+                : LocalDateTime.now();
+
+        Map<String, String> snapshot = new HashMap<>();
+        snapshot.put("latitude", location.getLatitude().toString());
+        snapshot.put("longitude", location.getLongitude().toString());
+        snapshot.put("status", location.getStatus().name());
+        snapshot.put("lastUpdatedAt", updatedAt.toString());
+
+        for (DriverStatus status : DriverStatus.values()) {
+            if (status == location.getStatus()) {
+                ops.opsForGeo().add(geoKey(status),
+                        new Point(location.getLongitude(), location.getLatitude()), member);
+            } else {
+                ops.opsForZSet().remove(geoKey(status), member);
+            }
+        }
+        ops.opsForHash().putAll(hashKey(location.getDriverId()), snapshot);
+        ops.expire(hashKey(location.getDriverId()), ttl);
+        ops.opsForZSet().add(HEARTBEAT_KEY, member, now);
+    }
+
+    @Override
+    public Optional<DriverLocation> findById(Long driverId) {
+        Map<Object, Object> snapshot = redisTemplate.opsForHash().entries(hashKey(driverId));
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(DriverLocation.builder()
+                .driverId(driverId)
+                .latitude(Double.valueOf((String) snapshot.get("latitude")))
+                .longitude(Double.valueOf((String) snapshot.get("longitude")))
+                .status(DriverStatus.valueOf((String) snapshot.get("status")))
+                .lastUpdatedAt(LocalDateTime.parse((String) snapshot.get("lastUpdatedAt")))
+                .build());
+    }
+
+    @Override
+    public void deleteById(Long driverId) {
+        String member = driverId.toString();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (DriverStatus status : DriverStatus.values()) {
+                    ops.opsForZSet().remove(geoKey(status), member);
+                }
+                ops.opsForZSet().remove(HEARTBEAT_KEY, member);
+                ops.delete(hashKey(driverId));
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public List<DriverLocation> findNearby(double latitude, double longitude, double radiusKm, int limit) {
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = redisTemplate.opsForGeo().search(
+                geoKey(DriverStatus.ONLINE),
+                GeoReference.fromCoordinate(longitude, latitude),
+                new Distance(radiusKm, Metrics.KILOMETERS),
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs()
+                        .includeCoordinates()
+                        .sortAscending()
+                        .limit(limit)
+        );
+
+        List<DriverLocation> locations = new ArrayList<>();
+        if (results == null) {
+            return locations;
+        }
+        results.forEach(result -> {
+            RedisGeoCommands.GeoLocation<String> geoLocation = result.getContent();
+            locations.add(DriverLocation.builder()
+                    .driverId(Long.valueOf(geoLocation.getName()))
+                    .latitude(geoLocation.getPoint().getY())
+                    .longitude(geoLocation.getPoint().getX())
+                    .status(DriverStatus.ONLINE)
+                    .build());
+        });
+        return locations;
+    }
+
+    /**
+     * GEO set members cannot expire individually, so drop drivers that stopped
+     * reporting for longer than the location TTL.
+     */
+    @Scheduled(fixedDelayString = "${app.driver.location.sweep-interval-ms:60000}")
+    public void sweepStaleLocations() {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        Set<String> stale = redisTemplate.opsForZSet().rangeByScore(HEARTBEAT_KEY, 0, cutoff);
+        if (stale == null || stale.isEmpty()) {
+            return;
+        }
+        stale.forEach(member -> deleteById(Long.valueOf(member)));
+        log.info("Swept {} stale driver locations", stale.size());
+    }
+
+    private static String geoKey(DriverStatus status) {
+        return GEO_KEY_PREFIX + status.name();
+    }
+
+    private static String hashKey(Long driverId) {
+        return Constants.REDIS_DRIVER_LOCATION_PREFIX + driverId;
+    }
+}
@@ -0,0 +1,183 @@
+package com.ridehailing.driver.repository;
+
+import com.ridehailing.common.util.Constants;
+import com.ridehailing.driver.domain.DriverLocation;
+import com.ridehailing.driver.domain.DriverStatus;
+import com.ridehailing.driver.index.DriverSpatialIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.IndexedData;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.convert.SimpleIndexedPropertyValue;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Location store backed by the {@code @RedisHash} repository.
+ * Nearest-driver queries are answered by the in-memory grid index. Every node publishes its
+ * writes and deletes on {@link Constants#REDIS_DRIVER_LOCATION_CHANNEL} as
+ * "node/driverId,lat,lon,STATUS,updatedMillis;driverId;..." (a bare id is a delete), and the
+ * other nodes apply them to their index, so each index covers pings received anywhere.
+ * A lost message is repaired by the driver's next ping or by the sweep of stale entries.
+ *
+ * Batches are written in one pipeline with the repository's own key layout: the entity hash
+ * {@code driver_location:{id}} with its TTL, the keyspace set, and the status index sets
+ * {@code driver_location:status:{STATUS}} with the per-entity {@code :idx} set, so
+ * {@link DriverLocationRepository} reads them unchanged.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.driver.location.store", havingValue = "hash", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class HashDriverLocationStore implements DriverLocationStore {
+
+    private final DriverLocationRepository driverLocationRepository;
+    private final DriverSpatialIndex driverSpatialIndex;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConverter redisConverter;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Rebuild the index from Redis so locations written before a restart stay matchable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpIndex() {
+        try {
+            driverLocationRepository.findAll().forEach(driverSpatialIndex::put);
+            log.info("Driver spatial index warmed up with {} locations", driverSpatialIndex.size());
+        } catch (Exception e) {
+            log.warn("Could not warm up driver spatial index: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void save(DriverLocation location) {
+        driverLocationRepository.save(location);
+        driverSpatialIndex.put(location);
+        publish(update(location));
+    }
+
+    /**
+     * All writes of the batch, and their announcement to other nodes, go out in a single pipeline.
+     */
+    @Override
+    public void saveAll(Collection<DriverLocation> locations) {
+        List<RedisData> entities = new ArrayList<>(locations.size());
+        StringBuilder updates = new StringBuilder(nodeId).append('/');
+        for (DriverLocation location : locations) {
+            RedisData entity = new RedisData();
+            redisConverter.write(location, entity);
+            entities.add(entity);
+            updates.append(update(location)).append(';');
+        }
+        byte[] message = bytes(updates.toString());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entities.forEach(entity -> write(connection, entity));
+            connection.publish(bytes(Constants.REDIS_DRIVER_LOCATION_CHANNEL), message);
+            return null;
+        });
+        locations.forEach(driverSpatialIndex::put);
+    }
+
+    // Same commands as RedisKeyValueAdapter.put, without reading the previous index entries first
+    private static void write(RedisConnection connection, RedisData entity) {
+        String keyspace = entity.getKeyspace();
+        byte[] id = bytes(entity.getId());
+        byte[] objectKey = bytes(keyspace + ":" + entity.getId());
+        byte[] indexSetKey = bytes(keyspace + ":" + entity.getId() + ":idx");
+
+        connection.keyCommands().del(objectKey);
+        connection.hashCommands().hMSet(objectKey, entity.getBucket().rawMap());
+        connection.setCommands().sAdd(bytes(keyspace), id);
+        Long timeToLive = entity.getTimeToLive();
+        if (timeToLive != null && timeToLive > 0) {
+            connection.keyCommands().expire(objectKey, timeToLive);
+        }
+
+        for (DriverStatus status : DriverStatus.values()) {
+            connection.setCommands().sRem(bytes(keyspace + ":status:" + status.name()), id);
+        }
+        connection.keyCommands().del(indexSetKey);
+        for (IndexedData indexed : entity.getIndexedData()) {
+            if (indexed instanceof SimpleIndexedPropertyValue value && value.getValue() != null) {
+                byte[] indexKey = bytes(indexed.getKeyspace() + ":" + indexed.getIndexName() + ":" + value.getValue());
+                connection.setCommands().sAdd(indexKey, id);
+                connection.setCommands().sAdd(indexSetKey, indexKey);
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Optional<DriverLocation> findById(Long driverId) {
+        return driverLocationRepository.findById(driverId);
+    }
+
+    @Override
+    public void deleteById(Long driverId) {
+        driverLocationRepository.deleteById(driverId);
+        driverSpatialIndex.remove(driverId);
+        publish(String.valueOf(driverId));
+    }
+
+    /**
+     * Apply a message published by another node; this node's own writes are already indexed.
+     */
+    public void onIndexUpdate(String message) {
+        int origin = message.indexOf('/');
+        if (origin <= 0 || message.startsWith(nodeId + "/")) {
+            return;
+        }
+        for (String entry : message.substring(origin + 1).split(";")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            try {
+                String[] fields = entry.split(",");
+                long driverId = Long.parseLong(fields[0]);
+                if (fields.length == 1) {
+                    driverSpatialIndex.remove(driverId);
+                } else {
+                    driverSpatialIndex.put(driverId, Double.parseDouble(fields[1]), Double.parseDouble(fields[2]),
+                            DriverStatus.valueOf(fields[3]), Long.parseLong(fields[4]));
+                }
+            } catch (RuntimeException e) {
+                log.debug("Ignoring driver index update {}: {}", entry, e.getMessage());
+            }
+        }
+    }
+
+    private void publish(String entry) {
+        try {
+            redisTemplate.convertAndSend(Constants.REDIS_DRIVER_LOCATION_CHANNEL, nodeId + "/" + entry);
+        } catch (RuntimeException e) {
+            log.warn("Could not announce driver index update {}: {}", entry, e.getMessage());
+        }
+    }
+
+    private static String update(DriverLocation location) {
+        return location.getDriverId() + "," + location.getLatitude() + "," + location.getLongitude() + ","
+                + location.getStatus().name() + "," + DriverSpatialIndex.updatedAtMillis(location);
+    }
+
+    @Override
+    public List<DriverLocation> findNearby(double latitude, double longitude, double radiusKm, int limit) {
+        return driverSpatialIndex.findNearest(latitude, longitude, radiusKm, limit);
+    }
+}
@@ -1,87 +1,126 @@
 package com.ridehailing.driver.service;
 
-import com.ridehailing.common.util.DistanceCalculator;
 import com.ridehailing.driver.domain.Driver;
 import com.ridehailing.driver.domain.DriverLocation;
 import com.ridehailing.driver.domain.DriverStatus;
-import com.ridehailing.driver.repository.DriverLocationRepository;
+import com.ridehailing.driver.pinglog.LocationPingLog;
+import com.ridehailing.driver.repository.DriverLocationStore;
+import com.ridehailing.pricing.service.ZoneDemandTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Service for managing driver locations in Redis.
- * Provides fast geospatial queries for driver matching.
+ * The backing {@link DriverLocationStore} is selected with {@code app.driver.location.store}.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DriverLocationService {
 
-    private final DriverLocationRepository driverLocationRepository;
+    private final DriverLocationStore driverLocationStore;
+    private final LocationIngestBuffer locationIngestBuffer;
+    private final ZoneDemandTracker zoneDemandTracker;
+    private final LocationPingLog locationPingLog;
 
     @Value("${app.driver.matching.search-radius-km:5.0}")
     private double searchRadiusKm;
 
+    @Value("${app.driver.location.ingest.buffered:true}")
+    private boolean buffered;
+
     public void updateDriverLocation(Driver driver, double latitude, double longitude) {
+        updateDriverLocation(driver.getId(), driver.getStatus(), latitude, longitude, LocalDateTime.now());
+    }
+
+    /**
+     * Record a location ping. When buffering is enabled the write is coalesced
+     * with other pings of the same flush window and written in a batch.
+     *
+     * @param receivedAt server time the ping arrived; it decides freshness, so it never
+     *                   comes from the device clock
+     */
+    public void updateDriverLocation(Long driverId, DriverStatus status, double latitude, double longitude,
+                                     LocalDateTime receivedAt) {
         DriverLocation location = DriverLocation.builder()
-                .driverId(driver.getId())
+                .driverId(driverId)
                 .latitude(latitude)
                 .longitude(longitude)
-                .status(driver.getStatus())
-                .lastUpdatedAt(LocalDateTime.now())
+                .status(status)
+                .lastUpdatedAt(receivedAt)
                 .build();
-        
-        driverLocationRepository.save(location);
-        log.debug("Updated location for driver: {} at ({}, {})", driver.getId(), latitude, longitude);
+
+        if (buffered) {
+            locationIngestBuffer.submit(location);
+        } else {
+            driverLocationStore.save(location);
+        }
+        zoneDemandTracker.recordDriverLocation(driverId, status, latitude, longitude);
+        locationPingLog.append(driverId, status, latitude, longitude, receivedAt);
+        log.debug("Updated location for driver: {} at ({}, {})", driverId, latitude, longitude);
+    }
+
+    /**
+     * Record a fix in the ping log only, for the earlier fixes of a batch whose latest
+     * one went through {@link #updateDriverLocation}.
+     */
+    public void logPing(Long driverId, DriverStatus status, double latitude, double longitude,
+                        LocalDateTime receivedAt) {
+        locationPingLog.append(driverId, status, latitude, longitude, receivedAt);
     }
 
     public Optional<DriverLocation> getDriverLocation(Long driverId) {
-        return driverLocationRepository.findById(driverId);
+        return driverLocationStore.findById(driverId);
     }
 
+    /**
+     * Remove the driver's location once the surrounding transaction commits (immediately
+     * when there is none), after the new status is visible to pings.
+     */
     public void removeDriverLocation(Long driverId) {
-        driverLocationRepository.deleteById(driverId);
-        log.debug("Removed location for driver: {}", driverId);
+        afterCommit(() -> {
+            if (buffered) {
+                locationIngestBuffer.submitRemoval(driverId);
+            } else {
+                driverLocationStore.deleteById(driverId);
+            }
+            zoneDemandTracker.recordDriverUnavailable(driverId);
+            log.debug("Removed location for driver: {}", driverId);
+        });
     }
 
     /**
-     * Find nearby online drivers within search radius.
-     * Note: This is a simple implementation. In production, use Redis GEO commands
-     * or a dedicated geospatial database like PostGIS.
+     * Find the nearest online drivers within search radius, ordered by distance.
      */
     public List<DriverLocation> findNearbyDrivers(double latitude, double longitude, int maxDrivers) {
-        List<DriverLocation> nearbyDrivers = new ArrayList<>();
-        
-        // Iterate through all driver locations (in production, use Redis GEO or spatial index)
-        Iterable<DriverLocation> allLocations = driverLocationRepository.findAll();
-        
-        for (DriverLocation location : allLocations) {
-            if (location.getStatus() == DriverStatus.ONLINE) {
-                double distance = DistanceCalculator.calculateDistance(
-                        latitude, longitude,
-                        location.getLatitude(), location.getLongitude()
-                );
-                
-                if (distance <= searchRadiusKm) {
-                    nearbyDrivers.add(location);
-                    
-                    if (nearbyDrivers.size() >= maxDrivers) {
-                        break;
-                    }
-                }
-            }
-        }
-        
-        log.info("Found {} nearby drivers within {}km of ({}, {})", 
+        List<DriverLocation> nearbyDrivers = driverLocationStore.findNearby(
+                latitude, longitude, searchRadiusKm, maxDrivers
+        );
+
+        log.info("Found {} nearby drivers within {}km of ({}, {})",
                 nearbyDrivers.size(), searchRadiusKm, latitude, longitude);
-        
+
         return nearbyDrivers;
     }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 }
@@ -0,0 +1,127 @@
+package com.ridehailing.driver.service;
+
+import com.ridehailing.common.util.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lock-free driver reservations: a short lease per driver held in Redis.
+ *
+ * Reserving is a compare-and-set (SET NX PX) keyed by driver and owned by a trip, so
+ * two dispatchers or nodes can never hand the same driver to two trips. Losing the
+ * race just means trying the next candidate. Leases expire on their own, so a crashed
+ * dispatcher cannot strand a driver.
+ */
+@Service
+@Slf4j
+public class DriverReservationService {
+
+    // Take the lease, or extend it when this trip already owns it
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 1 end " +
+            "if redis.call('get', KEYS[1]) == ARGV[1] then redis.call('pexpire', KEYS[1], ARGV[2]) return 1 end " +
+            "return 0",
+            Long.class);
+
+    // Delete the lease only if this trip still owns it
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long leaseMillis;
+
+    public DriverReservationService(
+            StringRedisTemplate redisTemplate,
+            @Value("${app.dispatch.reservation.lease-ms:30000}") long leaseMillis) {
+        this.redisTemplate = redisTemplate;
+        this.leaseMillis = leaseMillis;
+    }
+
+    /**
+     * @return true if the driver is now reserved for the trip (also when it already was)
+     */
+    public boolean reserve(Long driverId, Long tripId) {
+        try {
+            Long result = redisTemplate.execute(RESERVE_SCRIPT, List.of(key(driverId)),
+                    tripId.toString(), Long.toString(leaseMillis));
+            return result != null && result == 1L;
+        } catch (Exception e) {
+            log.warn("Could not reserve driver {} for trip {}: {}", driverId, tripId, e.getMessage());
+            return false;
+        }
+    }
+
+    public void release(Long driverId, Long tripId) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key(driverId)), tripId.toString());
+        } catch (Exception e) {
+            // The lease expires on its own
+            log.warn("Could not release driver {} from trip {}: {}", driverId, tripId, e.getMessage());
+        }
+    }
+
+    /**
+     * Drivers among the given ones that currently hold a lease, fetched with a single MGET.
+     */
+    public Set<Long> findReserved(Collection<Long> driverIds) {
+        Set<Long> reserved = new HashSet<>();
+        if (driverIds.isEmpty()) {
+            return reserved;
+        }
+        List<Long> ids = new ArrayList<>(driverIds);
+        try {
+            List<String> owners = redisTemplate.opsForValue().multiGet(ids.stream().map(DriverReservationService::key).toList());
+            if (owners == null) {
+                return reserved;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                if (owners.get(i) != null) {
+                    reserved.add(ids.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not read driver reservations: {}", e.getMessage());
+        }
+        return reserved;
+    }
+
+    /**
+     * Trip holding each driver's lease, fetched with a single MGET; drivers without a lease
+     * are left out. Failures propagate, so an outage is never mistaken for expired leases.
+     */
+    public Map<Long, Long> findLeaseOwners(Collection<Long> driverIds) {
+        Map<Long, Long> owners = new HashMap<>();
+        if (driverIds.isEmpty()) {
+            return owners;
+        }
+        List<Long> ids = new ArrayList<>(driverIds);
+        List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(DriverReservationService::key).toList());
+        if (values == null) {
+            throw new IllegalStateException("No reply reading driver reservations");
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (values.get(i) != null) {
+                owners.put(ids.get(i), Long.valueOf(values.get(i)));
+            }
+        }
+        return owners;
+    }
+
+    private static String key(Long driverId) {
+        return Constants.REDIS_DRIVER_RESERVATION_PREFIX + driverId;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ridehailing.driver.service;
 
+import com.ridehailing.common.cache.EntityCache;
 import com.ridehailing.common.exception.BusinessException;
 import com.ridehailing.common.exception.ResourceNotFoundException;
 import com.ridehailing.common.security.SecurityUtils;
@@ -7,14 +8,23 @@ import com.ridehailing.driver.domain.Driver;
 import com.ridehailing.driver.domain.DriverStatus;
 import com.ridehailing.driver.domain.Vehicle;
 import com.ridehailing.driver.dto.DriverProfileDto;
+import com.ridehailing.driver.dto.LocationUpdateRequest;
 import com.ridehailing.driver.dto.VehicleDto;
 import com.ridehailing.driver.repository.DriverRepository;
 import com.ridehailing.driver.repository.VehicleRepository;
+import com.ridehailing.trip.service.TripOdometer;
+import com.ridehailing.trip.service.TripTraceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -23,28 +33,49 @@ public class DriverService {
     private final DriverRepository driverRepository;
     private final VehicleRepository vehicleRepository;
     private final DriverLocationService driverLocationService;
+    private final DriverStatusCache driverStatusCache;
+    private final TripOdometer tripOdometer;
+    private final TripTraceService tripTraceService;
+    private final EntityCache<Long, Driver> driverByUserIdCache;
+    private final EntityCache<Long, Vehicle> vehicleByDriverIdCache;
 
     public DriverProfileDto getCurrentDriverProfile() {
         Driver driver = getCurrentDriver();
         return mapToProfileDto(driver);
     }
 
+    /**
+     * Current driver, loaded from the repository so it can be modified and saved.
+     */
     public Driver getCurrentDriver() {
-        Long userId = SecurityUtils.getCurrentUserId();
-        return driverRepository.findByUserId(userId)
+        return driverRepository.findById(getCurrentDriverId())
+                .orElseThrow(() -> new ResourceNotFoundException("Driver profile not found"));
+    }
+
+    /**
+     * Current driver's profile id; answered from the token, or from the driver cache
+     * when the token predates embedded profile ids.
+     */
+    public Long getCurrentDriverId() {
+        Long driverId = SecurityUtils.getCurrentDriverId();
+        if (driverId != null) {
+            return driverId;
+        }
+        return driverByUserIdCache.get(SecurityUtils.getCurrentUserId(), driverRepository::findByUserId)
+                .map(Driver::getId)
                 .orElseThrow(() -> new ResourceNotFoundException("Driver profile not found"));
     }
 
     @Transactional
     public VehicleDto registerVehicle(VehicleDto dto) {
-        Driver driver = getCurrentDriver();
+        Long driverId = getCurrentDriverId();
         
         if (vehicleRepository.existsByPlateNumber(dto.getPlateNumber())) {
             throw new BusinessException("Vehicle with this plate number already registered");
         }
         
         Vehicle vehicle = Vehicle.builder()
-                .driverId(driver.getId())
+                .driverId(driverId)
                 .plateNumber(dto.getPlateNumber())
                 .model(dto.getModel())
                 .color(dto.getColor())
@@ -52,7 +83,8 @@ public class DriverService {
                 .build();
         
         vehicle = vehicleRepository.save(vehicle);
-        log.info("Vehicle registered for driver: {}", driver.getId());
+        vehicleByDriverIdCache.put(driverId, vehicle);
+        log.info("Vehicle registered for driver: {}", driverId);
         
         return mapToVehicleDto(vehicle);
     }
@@ -61,12 +93,14 @@ public class DriverService {
     public void goOnline() {
         Driver driver = getCurrentDriver();
         
-        if (!vehicleRepository.findByDriverId(driver.getId()).isPresent()) {
+        if (vehicleByDriverIdCache.get(driver.getId(), vehicleRepository::findByDriverId).isEmpty()) {
             throw new BusinessException("Cannot go online without registering a vehicle");
         }
         
         driver.setStatus(DriverStatus.ONLINE);
         driverRepository.save(driver);
+        driverStatusCache.update(driver);
+        driverByUserIdCache.put(driver.getUserId(), driver);
         log.info("Driver {} is now online", driver.getId());
     }
 
@@ -75,25 +109,111 @@ public class DriverService {
         Driver driver = getCurrentDriver();
         driver.setStatus(DriverStatus.OFFLINE);
         driverRepository.save(driver);
+        driverStatusCache.update(driver);
+        driverByUserIdCache.put(driver.getUserId(), driver);
         
         // Remove from Redis
         driverLocationService.removeDriverLocation(driver.getId());
         log.info("Driver {} is now offline", driver.getId());
     }
 
-    @Transactional
+    /**
+     * Hot path for GPS pings: driver identity and status come from the in-process
+     * status cache, so a ping does not touch Postgres. The receive time is taken before
+     * the status is read, so a ping racing with goOffline is older than the removal.
+     */
     public void updateLocation(double latitude, double longitude) {
-        Driver driver = getCurrentDriver();
+        LocalDateTime receivedAt = LocalDateTime.now();
+        DriverStatusCache.CachedDriver driver = getCurrentDriverStatus();
         
-        if (driver.getStatus() != DriverStatus.ONLINE && driver.getStatus() != DriverStatus.BUSY) {
+        if (driver.status() != DriverStatus.ONLINE && driver.status() != DriverStatus.BUSY) {
             throw new BusinessException("Driver must be online to update location");
         }
         
-        driverLocationService.updateDriverLocation(driver, latitude, longitude);
+        driverLocationService.updateDriverLocation(
+                driver.driverId(), driver.status(), latitude, longitude, receivedAt);
+        if (driver.status() == DriverStatus.BUSY) {
+            recordTripPoint(driver.driverId(), latitude, longitude, receivedAt);
+        }
+    }
+
+    /**
+     * Accept several buffered fixes in one call; only the most recent one is kept
+     * as the driver's position. Device timestamps only order the fixes: the position is
+     * stamped with the server receive time, so a skewed device clock cannot make it look
+     * fresher or staler than it is. Every timestamped fix goes to the ping log and, during a
+     * trip, to the odometer and trace, at its device offset from the newest fix before the
+     * receive time. An untimed latest fix is recorded at the receive time like a single ping,
+     * with the timestamped fixes just before it; other untimed fixes cannot be placed and only
+     * the latest one is kept.
+     */
+    public void updateLocationBatch(List<LocationUpdateRequest> points) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        DriverStatusCache.CachedDriver driver = getCurrentDriverStatus();
+        
+        if (driver.status() != DriverStatus.ONLINE && driver.status() != DriverStatus.BUSY) {
+            throw new BusinessException("Driver must be online to update location");
+        }
+        
+        LocationUpdateRequest latest = latestFix(points);
+        
+        List<LocationUpdateRequest> timed = points.stream()
+                .filter(point -> point.getRecordedAt() != null && point != latest)
+                .sorted(Comparator.comparing(LocationUpdateRequest::getRecordedAt))
+                .toList();
+        // Keep the device's spacing between fixes but move them onto the server clock,
+        // the latest fix at the receive time, like single pings
+        LocalDateTime newestRecordedAt = latest.getRecordedAt() != null
+                ? latest.getRecordedAt()
+                : timed.isEmpty() ? null : timed.get(timed.size() - 1).getRecordedAt();
+        LocalDateTime newestAt = latest.getRecordedAt() != null ? receivedAt : receivedAt.minus(Duration.ofMillis(1));
+        List<LocalDateTime> serverTimes = new ArrayList<>(timed.size());
+        for (LocationUpdateRequest point : timed) {
+            LocalDateTime serverTime = newestAt.minus(Duration.between(point.getRecordedAt(), newestRecordedAt));
+            serverTimes.add(serverTime);
+            driverLocationService.logPing(
+                    driver.driverId(), driver.status(), point.getLatitude(), point.getLongitude(), serverTime);
+        }
+        
+        driverLocationService.updateDriverLocation(
+                driver.driverId(), driver.status(), latest.getLatitude(), latest.getLongitude(), receivedAt);
+        
+        if (driver.status() == DriverStatus.BUSY) {
+            for (int i = 0; i < timed.size(); i++) {
+                LocationUpdateRequest point = timed.get(i);
+                recordTripPoint(driver.driverId(), point.getLatitude(), point.getLongitude(), serverTimes.get(i));
+            }
+            recordTripPoint(driver.driverId(), latest.getLatitude(), latest.getLongitude(), receivedAt);
+        }
+    }
+
+    private static LocationUpdateRequest latestFix(List<LocationUpdateRequest> points) {
+        LocationUpdateRequest latest = points.get(points.size() - 1);
+        for (LocationUpdateRequest point : points) {
+            if (point.getRecordedAt() != null && latest.getRecordedAt() != null
+                    && point.getRecordedAt().isAfter(latest.getRecordedAt())) {
+                latest = point;
+            }
+        }
+        return latest;
+    }
+
+    private void recordTripPoint(Long driverId, double latitude, double longitude, LocalDateTime receivedAt) {
+        tripOdometer.record(driverId, latitude, longitude, receivedAt);
+        tripTraceService.record(driverId, latitude, longitude, receivedAt);
+    }
+
+    /**
+     * Current driver's id and live status from the status cache.
+     */
+    public DriverStatusCache.CachedDriver getCurrentDriverStatus() {
+        Long userId = SecurityUtils.getCurrentUserId();
+        return driverStatusCache.getOrLoad(userId, id -> driverRepository.findByUserId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Driver profile not found")));
     }
 
     private DriverProfileDto mapToProfileDto(Driver driver) {
-        VehicleDto vehicleDto = vehicleRepository.findByDriverId(driver.getId())
+        VehicleDto vehicleDto = vehicleByDriverIdCache.get(driver.getId(), vehicleRepository::findByDriverId)
                 .map(this::mapToVehicleDto)
                 .orElse(null);
         
@@ -0,0 +1,165 @@
+package com.ridehailing.driver.service;
+
+import com.ridehailing.common.cache.EntityCacheManager;
+import com.ridehailing.driver.domain.Driver;
+import com.ridehailing.driver.domain.DriverStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-process userId -> (driverId, status) map so location pings never need Postgres.
+ * Status transitions publish the new value after their transaction commits and announce
+ * it, so other nodes drop their copy and reload it on the next ping. A miss parks a
+ * placeholder entry while it loads and stores the value only if that placeholder is still
+ * there, so a load never overwrites a value published or invalidated meanwhile, and
+ * transitions of other drivers do not stop it from being cached. Entries expire, which bounds
+ * how long a lost announcement can leave a node stale, and when the map is full new
+ * entries are not cached until expired ones are swept.
+ *
+ * Metrics: driver.status.cache.requests{result=hit|miss}, driver.status.cache.hit.ratio
+ */
+@Component
+public class DriverStatusCache {
+
+    private static final String INVALIDATION_NAME = "driver-status";
+
+    private final Map<Long, Entry> byUserId = new ConcurrentHashMap<>();
+    private final EntityCacheManager entityCacheManager;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public DriverStatusCache(
+            MeterRegistry meterRegistry,
+            EntityCacheManager entityCacheManager,
+            @Value("${app.driver.status-cache.max-entries:100000}") int maxEntries,
+            @Value("${app.driver.status-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.entityCacheManager = entityCacheManager;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        entityCacheManager.subscribe(INVALIDATION_NAME, userId -> invalidateLocally(Long.valueOf(userId)));
+        this.hits = Counter.builder("driver.status.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("driver.status.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("driver.status.cache.hit.ratio", this, DriverStatusCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("driver.status.cache.size", byUserId, Map::size)
+                .register(meterRegistry);
+    }
+
+    public CachedDriver getOrLoad(Long userId, Function<Long, Driver> loader) {
+        Entry entry = byUserId.get(userId);
+        if (entry != null && entry.expiresAtMillis() > System.currentTimeMillis()) {
+            hits.increment();
+            return entry.driver();
+        }
+        misses.increment();
+        // Already expired, so reads miss; compared by identity, and a transition, invalidation
+        // or other load replaces or drops it
+        Entry loading = new Entry(null, 0);
+        boolean parked = (byUserId.size() < maxEntries || byUserId.containsKey(userId))
+                && byUserId.compute(userId, (id, current) -> current == entry ? loading : current) == loading;
+        CachedDriver loaded;
+        try {
+            loaded = CachedDriver.of(loader.apply(userId));
+        } catch (RuntimeException e) {
+            if (parked) {
+                byUserId.computeIfPresent(userId, (id, current) -> current == loading ? null : current);
+            }
+            throw e;
+        }
+        if (parked) {
+            byUserId.computeIfPresent(userId, (id, current) -> current == loading ? expiring(loaded) : current);
+        }
+        return loaded;
+    }
+
+    /**
+     * Publish the driver's new status once the surrounding transaction commits
+     * (immediately when there is none).
+     */
+    public void update(Driver driver) {
+        publish(CachedDriver.of(driver));
+    }
+
+    /**
+     * Same as {@link #update(Driver)}, for transitions written without loading the driver.
+     */
+    public void update(Long driverId, Long userId, DriverStatus status) {
+        publish(new CachedDriver(driverId, userId, status));
+    }
+
+    private void publish(CachedDriver value) {
+        afterCommit(() -> {
+            byUserId.compute(value.userId(), (id, current) ->
+                    current != null || byUserId.size() < maxEntries ? expiring(value) : null);
+            entityCacheManager.publish(INVALIDATION_NAME, value.userId());
+        });
+    }
+
+    /**
+     * Drop the entry on every node once the surrounding transaction commits.
+     */
+    public void evict(Long userId) {
+        afterCommit(() -> {
+            invalidateLocally(userId);
+            entityCacheManager.publish(INVALIDATION_NAME, userId);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.driver.status-cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        byUserId.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+
+    private void invalidateLocally(Long userId) {
+        byUserId.remove(userId);
+    }
+
+    private Entry expiring(CachedDriver driver) {
+        return new Entry(driver, System.currentTimeMillis() + ttlMillis);
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public record CachedDriver(Long driverId, Long userId, DriverStatus status) {
+
+        static CachedDriver of(Driver driver) {
+            return new CachedDriver(driver.getId(), driver.getUserId(), driver.getStatus());
+        }
+    }
+
+    private record Entry(CachedDriver driver, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.ridehailing.driver.service;
+
+import com.ridehailing.driver.domain.DriverLocation;
+import com.ridehailing.driver.repository.DriverLocationStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalescing write buffer for driver location pings.
+ * Only the latest point per driver is kept within a flush window; a single
+ * scheduled flusher writes the window to the location store in batches.
+ * Removals are buffered as tombstones and remembered with their time for a while after
+ * the flush, so a ping received before the removal can never resurrect a driver that
+ * went offline, whether it lands in the same window or a later one.
+ */
+@Component
+@Slf4j
+public class LocationIngestBuffer {
+
+    private final DriverLocationStore driverLocationStore;
+    private final int maxBatchSize;
+
+    // Long enough for any ping received before a removal to have been submitted
+    private static final long REMOVAL_MEMORY_SECONDS = 60;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> removedAt = new ConcurrentHashMap<>();
+
+    public LocationIngestBuffer(
+            DriverLocationStore driverLocationStore,
+            @Value("${app.driver.location.ingest.max-batch-size:1000}") int maxBatchSize) {
+        this.driverLocationStore = driverLocationStore;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void submit(DriverLocation location) {
+        // compute holds the key's lock, so a removal cannot slip in between check and write
+        pending.compute(location.getDriverId(), (driverId, current) -> {
+            LocalDateTime removed = removedAt.get(driverId);
+            if (removed != null && location.getLastUpdatedAt() != null
+                    && !location.getLastUpdatedAt().isAfter(removed)) {
+                return current;
+            }
+            return current == null ? Pending.save(location) : Pending.latest(current, Pending.save(location));
+        });
+    }
+
+    public void submitRemoval(Long driverId) {
+        pending.compute(driverId, (id, current) -> {
+            removedAt.put(id, LocalDateTime.now());
+            return Pending.removal();
+        });
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.driver.location.ingest.flush-interval-ms:200}")
+    public void flush() {
+        if (!removedAt.isEmpty()) {
+            LocalDateTime forgetBefore = LocalDateTime.now().minusSeconds(REMOVAL_MEMORY_SECONDS);
+            removedAt.values().removeIf(removed -> removed.isBefore(forgetBefore));
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<DriverLocation> saves = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+        int flushed = 0;
+        for (Long driverId : pending.keySet()) {
+            Pending entry = pending.remove(driverId);
+            if (entry == null) {
+                continue;
+            }
+            flushed++;
+            if (entry.location == null) {
+                removeDriver(driverId);
+                continue;
+            }
+            saves.add(entry.location);
+            if (saves.size() >= maxBatchSize) {
+                writeBatch(saves);
+                saves = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!saves.isEmpty()) {
+            writeBatch(saves);
+        }
+        log.debug("Flushed {} buffered driver location writes", flushed);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeBatch(List<DriverLocation> batch) {
+        try {
+            driverLocationStore.saveAll(batch);
+        } catch (Exception e) {
+            // Drivers ping every few seconds, so a lost window is superseded by the next one
+            log.warn("Failed to flush {} driver locations: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void removeDriver(Long driverId) {
+        try {
+            driverLocationStore.deleteById(driverId);
+        } catch (Exception e) {
+            log.warn("Failed to remove location for driver {}: {}", driverId, e.getMessage());
+        }
+    }
+
+    private static final class Pending {
+        private final DriverLocation location;
+
+        private Pending(DriverLocation location) {
+            this.location = location;
+        }
+
+        static Pending save(DriverLocation location) {
+            return new Pending(location);
+        }
+
+        static Pending removal() {
+            return new Pending(null);
+        }
+
+        static Pending latest(Pending current, Pending incoming) {
+            if (current.location == null || incoming.location == null) {
+                return incoming;
+            }
+            boolean olderThanCurrent = incoming.location.getLastUpdatedAt() != null
+                    && current.location.getLastUpdatedAt() != null
+                    && incoming.location.getLastUpdatedAt().isBefore(current.location.getLastUpdatedAt());
+            return olderThanCurrent ? current : incoming;
+        }
+    }
+}
@@ -28,6 +28,14 @@ public class NotificationConsumer {
         sendPushNotification(event.getDriverId(), "New trip request nearby!", "Tap to accept");
     }
 
+    @KafkaListener(topics = Constants.TOPIC_TRIP_DRIVER_ASSIGNED, groupId = "${spring.kafka.consumer.group-id}")
+    public void handleTripDriverAssigned(TripEventDto event) {
+        log.info("🔔 Driver assigned: tripId={}, driverId={}", event.getTripId(), event.getDriverId());
+        // TODO: Send trip details to the driver and matching status to the rider
+        sendPushNotification(event.getDriverId(), "New trip assigned!", "Tap to accept");
+        sendPushNotification(event.getRiderId(), "Driver found!", "Waiting for the driver to accept");
+    }
+
     @KafkaListener(topics = Constants.TOPIC_TRIP_ACCEPTED, groupId = "${spring.kafka.consumer.group-id}")
     public void handleTripAccepted(TripEventDto event) {
         log.info("🔔 Trip accepted: tripId={}, driverId={}", event.getTripId(), event.getDriverId());
@@ -21,7 +21,7 @@ public class PricingController {
     @PreAuthorize("hasAnyRole('RIDER', 'DRIVER')")
     public ResponseEntity<ApiResponse<PriceEstimateResponse>> getPriceEstimate(
             @Valid @RequestBody PriceEstimateRequest request) {
-        PriceEstimateResponse estimate = pricingService.calculatePrice(request);
+        PriceEstimateResponse estimate = pricingService.quote(request);
         return ResponseEntity.ok(ApiResponse.success("Price estimated", estimate));
     }
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @Builder
@@ -17,4 +18,6 @@ public class PriceEstimateResponse {
     private BigDecimal baseFare;
     private BigDecimal perKmRate;
     private BigDecimal surgeMultiplier;
+    private String quoteId;
+    private LocalDateTime quoteExpiresAt;
 }
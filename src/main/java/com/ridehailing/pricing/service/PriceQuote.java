@@ -0,0 +1,34 @@
+package com.ridehailing.pricing.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A price estimate locked for a short time so the trip request can redeem it
+ * instead of recomputing distance and surge.
+ */
+public record PriceQuote(
+        String quoteId,
+        Long userId,
+        double originLatitude,
+        double originLongitude,
+        double destinationLatitude,
+        double destinationLongitude,
+        BigDecimal estimatedFare,
+        BigDecimal distanceKm,
+        BigDecimal surgeMultiplier,
+        LocalDateTime expiresAt) {
+
+    private static final double COORDINATE_TOLERANCE = 1e-6;
+
+    public boolean isExpired(LocalDateTime now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    public boolean matches(double originLat, double originLon, double destinationLat, double destinationLon) {
+        return Math.abs(originLatitude - originLat) < COORDINATE_TOLERANCE
+                && Math.abs(originLongitude - originLon) < COORDINATE_TOLERANCE
+                && Math.abs(destinationLatitude - destinationLat) < COORDINATE_TOLERANCE
+                && Math.abs(destinationLongitude - destinationLon) < COORDINATE_TOLERANCE;
+    }
+}
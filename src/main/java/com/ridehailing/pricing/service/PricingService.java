@@ -1,7 +1,9 @@
 package com.ridehailing.pricing.service;
 
+import com.ridehailing.common.security.SecurityUtils;
 import com.ridehailing.pricing.dto.PriceEstimateRequest;
 import com.ridehailing.pricing.dto.PriceEstimateResponse;
+import com.ridehailing.routing.service.EtaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +22,8 @@ import java.math.RoundingMode;
 public class PricingService {
 
     private final SurgeCalculator surgeCalculator;
+    private final QuoteService quoteService;
+    private final EtaService etaService;
 
     @Value("${app.pricing.base-fare:2.50}")
     private double baseFare;
@@ -27,6 +31,9 @@ public class PricingService {
     @Value("${app.pricing.per-km-rate:1.20}")
     private double perKmRate;
 
+    @Value("${app.pricing.per-minute-rate:0.0}")
+    private double perMinuteRate;
+
     public PriceEstimateResponse calculatePrice(PriceEstimateRequest request) {
         double distanceKm = request.getDistanceKm();
         
@@ -55,4 +62,43 @@ public class PricingService {
                 .surgeMultiplier(surgeMultiplier)
                 .build();
     }
+
+    /**
+     * Fare for a completed trip from the measured distance and duration,
+     * with the surge multiplier locked in when the trip was requested.
+     */
+    public BigDecimal calculateFinalFare(double distanceKm, long durationSeconds, BigDecimal surgeMultiplier) {
+        double basePrice = baseFare + (distanceKm * perKmRate) + (durationSeconds / 60.0 * perMinuteRate);
+        return BigDecimal.valueOf(basePrice)
+                .multiply(surgeMultiplier)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Price estimate for the rider-facing endpoint. Distance is the road distance between
+     * the coordinates and the result is locked as a quote the trip request can redeem.
+     */
+    public PriceEstimateResponse quote(PriceEstimateRequest request) {
+        request.setDistanceKm(etaService.estimate(
+                request.getOriginLatitude(),
+                request.getOriginLongitude(),
+                request.getDestinationLatitude(),
+                request.getDestinationLongitude()
+        ).distanceKm());
+        PriceEstimateResponse estimate = calculatePrice(request);
+        
+        PriceQuote quote = quoteService.issue(
+                SecurityUtils.getCurrentUserId(),
+                request.getOriginLatitude(),
+                request.getOriginLongitude(),
+                request.getDestinationLatitude(),
+                request.getDestinationLongitude(),
+                estimate.getEstimatedFare(),
+                estimate.getDistanceKm(),
+                estimate.getSurgeMultiplier()
+        );
+        estimate.setQuoteId(quote.quoteId());
+        estimate.setQuoteExpiresAt(quote.expiresAt());
+        return estimate;
+    }
 }
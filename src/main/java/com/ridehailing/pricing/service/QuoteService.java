@@ -0,0 +1,146 @@
+package com.ridehailing.pricing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ridehailing.common.exception.BusinessException;
+import com.ridehailing.common.util.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived price locks issued by the estimate endpoint and redeemed by the trip request.
+ *
+ * Quotes live in an in-process map and in Redis (SET with TTL) so any node can redeem them.
+ * Redemption is single-use: the quote is read and checked first, so a rejected request
+ * leaves it usable, then the Redis copy is taken with GETDEL, so two concurrent requests
+ * with the same quote cannot both succeed. If Redis is unavailable the quote is still
+ * served from the node that issued it.
+ */
+@Service
+@Slf4j
+public class QuoteService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    private final Map<String, LocalQuote> localQuotes = new ConcurrentHashMap<>();
+
+    public QuoteService(
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${app.pricing.quote.ttl-seconds:120}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public PriceQuote issue(Long userId, double originLatitude, double originLongitude,
+                            double destinationLatitude, double destinationLongitude,
+                            BigDecimal estimatedFare, BigDecimal distanceKm, BigDecimal surgeMultiplier) {
+        PriceQuote quote = new PriceQuote(
+                UUID.randomUUID().toString(),
+                userId,
+                originLatitude,
+                originLongitude,
+                destinationLatitude,
+                destinationLongitude,
+                estimatedFare,
+                distanceKm,
+                surgeMultiplier,
+                LocalDateTime.now().plus(ttl)
+        );
+
+        boolean shared = false;
+        try {
+            redisTemplate.opsForValue().set(key(quote.quoteId()), objectMapper.writeValueAsString(quote), ttl);
+            shared = true;
+        } catch (Exception e) {
+            log.warn("Could not store quote {} in Redis, keeping it local: {}", quote.quoteId(), e.getMessage());
+        }
+        localQuotes.put(quote.quoteId(), new LocalQuote(quote, shared));
+        return quote;
+    }
+
+    /**
+     * Take a quote for the given user and trip. A quote can be redeemed once;
+     * unknown, expired, foreign or mismatching quotes are rejected without using it up.
+     */
+    public PriceQuote redeem(String quoteId, Long userId, double originLatitude, double originLongitude,
+                             double destinationLatitude, double destinationLongitude) {
+        PriceQuote quote = find(quoteId);
+
+        if (quote == null || quote.isExpired(LocalDateTime.now())) {
+            throw new BusinessException("Quote expired or already used, please request a new estimate");
+        }
+        if (!quote.userId().equals(userId)) {
+            throw new BusinessException("Quote was issued to another user");
+        }
+        if (!quote.matches(originLatitude, originLongitude, destinationLatitude, destinationLongitude)) {
+            throw new BusinessException("Quote does not match the requested trip");
+        }
+        if (!take(quoteId)) {
+            throw new BusinessException("Quote expired or already used, please request a new estimate");
+        }
+
+        log.debug("Quote {} redeemed by user {}", quoteId, userId);
+        return quote;
+    }
+
+    private PriceQuote find(String quoteId) {
+        LocalQuote local = localQuotes.get(quoteId);
+        try {
+            String json = redisTemplate.opsForValue().get(key(quoteId));
+            if (json != null) {
+                return objectMapper.readValue(json, PriceQuote.class);
+            }
+            // Redis is the source of truth for shared quotes: a missing key means used or expired
+            return local != null && !local.shared() ? local.quote() : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable quote {}: {}", quoteId, e.getMessage());
+            return null;
+        } catch (Exception e) {
+            log.warn("Could not read quote {} from Redis, falling back to local copy: {}", quoteId, e.getMessage());
+            return local != null ? local.quote() : null;
+        }
+    }
+
+    /**
+     * @return whether this call used the quote up; false when a concurrent redemption won
+     */
+    private boolean take(String quoteId) {
+        LocalQuote local = localQuotes.remove(quoteId);
+        try {
+            if (redisTemplate.opsForValue().getAndDelete(key(quoteId)) != null) {
+                return true;
+            }
+            return local != null && !local.shared();
+        } catch (Exception e) {
+            log.warn("Could not redeem quote {} from Redis, falling back to local copy: {}", quoteId, e.getMessage());
+            return local != null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.quote.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        localQuotes.values().removeIf(local -> local.quote().isExpired(now));
+    }
+
+    private static String key(String quoteId) {
+        return Constants.REDIS_PRICE_QUOTE_PREFIX + quoteId;
+    }
+
+    private record LocalQuote(PriceQuote quote, boolean shared) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.ridehailing.pricing.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Background job that recomputes the surge multiplier of every active zone and
+ * publishes the result to {@link SurgeCalculator} as an immutable snapshot.
+ *
+ * Each refresh:
+ * 1. Raw multiplier from the zone's demand/supply ratio: 1.0 + ratio * 0.5, capped at max-multiplier
+ * 2. EWMA smoothing against the previous refresh (smoothing-factor)
+ * 3. Hysteresis: moves smaller than the deadband are ignored and each step is capped at max-step
+ *
+ * Zones that calm down to 1.0 are dropped from the snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SurgeEngine {
+
+    private static final double CALM_EPSILON = 0.005;
+
+    private final ZoneDemandTracker zoneDemandTracker;
+    private final SurgeCalculator surgeCalculator;
+
+    @Value("${app.pricing.surge.max-multiplier:3.0}")
+    private double maxSurgeMultiplier;
+
+    @Value("${app.pricing.surge.smoothing-factor:0.3}")
+    private double smoothingFactor;
+
+    @Value("${app.pricing.surge.deadband:0.05}")
+    private double deadband;
+
+    @Value("${app.pricing.surge.max-step:0.25}")
+    private double maxStep;
+
+    @Scheduled(fixedDelayString = "${app.pricing.surge.refresh-interval-ms:5000}")
+    public void refresh() {
+        SurgeSnapshot previous = surgeCalculator.getSnapshot();
+
+        Set<Long> zones = zoneDemandTracker.activeZones();
+        zones.addAll(previous.zones().keySet());
+
+        Map<Long, SurgeSnapshot.ZoneSurge> next = new HashMap<>();
+        for (Long zoneId : zones) {
+            SurgeSnapshot.ZoneSurge zone = recompute(zoneId, previous.zone(zoneId));
+            if (zone != null) {
+                next.put(zoneId, zone);
+            }
+        }
+
+        surgeCalculator.publish(new SurgeSnapshot(next, Instant.now()));
+        log.debug("Surge snapshot refreshed: {} surging zones out of {} active", next.size(), zones.size());
+    }
+
+    private SurgeSnapshot.ZoneSurge recompute(long zoneId, SurgeSnapshot.ZoneSurge previous) {
+        double previousSmoothed = previous != null ? previous.smoothed() : 1.0;
+        double previousPublished = previous != null ? previous.multiplier().doubleValue() : 1.0;
+
+        double raw = rawMultiplier(zoneDemandTracker.openRequests(zoneId), zoneDemandTracker.availableDrivers(zoneId));
+        double smoothed = smoothingFactor * raw + (1 - smoothingFactor) * previousSmoothed;
+
+        double delta = smoothed - previousPublished;
+        if (Math.abs(delta) < deadband) {
+            // A calm zone is dropped even inside the deadband, or its last step would stick forever
+            if (smoothed < 1.0 + CALM_EPSILON) {
+                return null;
+            }
+            return new SurgeSnapshot.ZoneSurge(smoothed, previous != null ? previous.multiplier() : SurgeSnapshot.NO_SURGE);
+        }
+
+        double published = previousPublished + Math.max(-maxStep, Math.min(maxStep, delta));
+        published = Math.max(1.0, Math.min(maxSurgeMultiplier, published));
+        if (published < 1.0 + CALM_EPSILON && smoothed < 1.0 + CALM_EPSILON) {
+            return null;
+        }
+        return new SurgeSnapshot.ZoneSurge(smoothed, BigDecimal.valueOf(published).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    private double rawMultiplier(long activeRequests, long availableDrivers) {
+        double demandSupplyRatio = availableDrivers > 0
+                ? (double) activeRequests / availableDrivers
+                : activeRequests;
+        return Math.min(1.0 + (demandSupplyRatio * 0.5), maxSurgeMultiplier);
+    }
+}
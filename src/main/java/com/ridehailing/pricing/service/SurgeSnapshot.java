@@ -0,0 +1,57 @@
+package com.ridehailing.pricing.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable surge multipliers per zone, produced by {@link SurgeEngine} and read
+ * by {@link SurgeCalculator}. Zones that are not listed are not surging.
+ */
+public final class SurgeSnapshot {
+
+    static final BigDecimal NO_SURGE = BigDecimal.ONE.setScale(2, RoundingMode.HALF_UP);
+
+    private static final SurgeSnapshot EMPTY = new SurgeSnapshot(Map.of(), Instant.EPOCH);
+
+    private final Map<Long, ZoneSurge> zones;
+    private final Instant computedAt;
+
+    SurgeSnapshot(Map<Long, ZoneSurge> zones, Instant computedAt) {
+        this.zones = Map.copyOf(zones);
+        this.computedAt = computedAt;
+    }
+
+    static SurgeSnapshot empty() {
+        return EMPTY;
+    }
+
+    public BigDecimal multiplierFor(long zoneId) {
+        ZoneSurge zone = zones.get(zoneId);
+        return zone != null ? zone.multiplier() : NO_SURGE;
+    }
+
+    ZoneSurge zone(long zoneId) {
+        return zones.get(zoneId);
+    }
+
+    Map<Long, ZoneSurge> zones() {
+        return zones;
+    }
+
+    public int size() {
+        return zones.size();
+    }
+
+    public Instant getComputedAt() {
+        return computedAt;
+    }
+
+    /**
+     * @param smoothed   EWMA of the raw multiplier, carried into the next refresh
+     * @param multiplier published multiplier, precomputed at price scale
+     */
+    record ZoneSurge(double smoothed, BigDecimal multiplier) {
+    }
+}
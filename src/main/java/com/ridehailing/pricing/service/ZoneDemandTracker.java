@@ -0,0 +1,196 @@
+package com.ridehailing.pricing.service;
+
+import com.ridehailing.common.cache.EntityCacheManager;
+import com.ridehailing.common.util.GeoGrid;
+import com.ridehailing.driver.domain.DriverStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming per-zone supply and demand counters used for surge pricing.
+ * Zones are cells of a fixed {@link GeoGrid}.
+ *
+ * - Demand: open trip requests, fed by the trip lifecycle (requested, then accepted or cancelled).
+ * - Supply: available drivers, fed by location pings (ONLINE counts, BUSY/OFFLINE does not).
+ *
+ * Both are sliding windows: a request or driver that produces no event for longer
+ * than its window drops out on the next sweep, so lost events cannot skew a zone forever.
+ * Reads are a single map lookup and never touch the database.
+ *
+ * Counters are per node: a request is counted by the node that opened it. Closes and drivers
+ * becoming unavailable are broadcast through {@link EntityCacheManager}, so a trip accepted or
+ * cancelled on another node leaves this node's demand right away instead of after the window.
+ */
+@Component
+@Slf4j
+public class ZoneDemandTracker {
+
+    private static final String CLOSED_REQUESTS = "zone-demand-requests";
+    private static final String UNAVAILABLE_DRIVERS = "zone-demand-drivers";
+
+    private final GeoGrid grid;
+    private final EntityCacheManager entityCacheManager;
+    private final long demandWindowMillis;
+    private final long supplyWindowMillis;
+
+    private final ZoneCounter openRequests = new ZoneCounter();
+    private final ZoneCounter availableDrivers = new ZoneCounter();
+
+    public ZoneDemandTracker(
+            @Value("${app.pricing.surge.zone-size-km:2.0}") double zoneSizeKm,
+            @Value("${app.pricing.surge.demand-window-seconds:600}") long demandWindowSeconds,
+            @Value("${app.pricing.surge.supply-window-seconds:120}") long supplyWindowSeconds,
+            EntityCacheManager entityCacheManager) {
+        this.grid = new GeoGrid(zoneSizeKm);
+        this.entityCacheManager = entityCacheManager;
+        this.demandWindowMillis = demandWindowSeconds * 1000;
+        this.supplyWindowMillis = supplyWindowSeconds * 1000;
+        entityCacheManager.subscribe(CLOSED_REQUESTS, tripId -> openRequests.remove(Long.valueOf(tripId)));
+        entityCacheManager.subscribe(UNAVAILABLE_DRIVERS, driverId -> availableDrivers.remove(Long.valueOf(driverId)));
+    }
+
+    public long zoneOf(double latitude, double longitude) {
+        return grid.cellId(latitude, longitude);
+    }
+
+    public void recordRequestOpened(Long tripId, double latitude, double longitude) {
+        openRequests.touch(tripId, zoneOf(latitude, longitude), System.currentTimeMillis());
+    }
+
+    public void recordRequestClosed(Long tripId) {
+        openRequests.remove(tripId);
+        entityCacheManager.publish(CLOSED_REQUESTS, tripId);
+    }
+
+    public void recordDriverLocation(Long driverId, DriverStatus status, double latitude, double longitude) {
+        if (status == DriverStatus.ONLINE) {
+            availableDrivers.touch(driverId, zoneOf(latitude, longitude), System.currentTimeMillis());
+        } else {
+            availableDrivers.remove(driverId);
+        }
+    }
+
+    public void recordDriverUnavailable(Long driverId) {
+        availableDrivers.remove(driverId);
+        entityCacheManager.publish(UNAVAILABLE_DRIVERS, driverId);
+    }
+
+    public int openRequests(long zoneId) {
+        return openRequests.count(zoneId);
+    }
+
+    public int availableDrivers(long zoneId) {
+        return availableDrivers.count(zoneId);
+    }
+
+    /**
+     * Zones that currently have at least one open request or available driver.
+     * Zones whose counters have dropped to zero are pruned on the way.
+     */
+    public Set<Long> activeZones() {
+        Set<Long> zones = new HashSet<>();
+        openRequests.collectNonEmptyZones(zones);
+        availableDrivers.collectNonEmptyZones(zones);
+        return zones;
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.surge.sweep-interval-ms:10000}")
+    public void expireStale() {
+        long now = System.currentTimeMillis();
+        int expiredRequests = openRequests.expireBefore(now - demandWindowMillis);
+        int expiredDrivers = availableDrivers.expireBefore(now - supplyWindowMillis);
+        if (expiredRequests > 0 || expiredDrivers > 0) {
+            log.debug("Expired {} open requests and {} idle drivers from surge zones",
+                    expiredRequests, expiredDrivers);
+        }
+    }
+
+    /**
+     * Members (trips or drivers) assigned to one zone each, with a running count per zone.
+     * Counts are adjusted inside the member's compute() so a member moving between
+     * zones is never counted twice or lost. A zone's counter is created and dropped inside
+     * compute() on the zone, so an increment never lands on a counter that was just pruned.
+     */
+    private static final class ZoneCounter {
+
+        private final Map<Long, Membership> members = new ConcurrentHashMap<>();
+        private final Map<Long, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        void touch(Long memberId, long zoneId, long nowMillis) {
+            members.compute(memberId, (id, previous) -> {
+                if (previous == null || previous.zoneId != zoneId) {
+                    if (previous != null) {
+                        decrement(previous.zoneId);
+                    }
+                    counts.compute(zoneId, (z, count) -> {
+                        AtomicInteger counter = count != null ? count : new AtomicInteger();
+                        counter.incrementAndGet();
+                        return counter;
+                    });
+                }
+                return new Membership(zoneId, nowMillis);
+            });
+        }
+
+        void remove(Long memberId) {
+            members.computeIfPresent(memberId, (id, previous) -> {
+                decrement(previous.zoneId);
+                return null;
+            });
+        }
+
+        int count(long zoneId) {
+            AtomicInteger count = counts.get(zoneId);
+            return count != null ? count.get() : 0;
+        }
+
+        void collectNonEmptyZones(Set<Long> zones) {
+            for (Long zoneId : counts.keySet()) {
+                counts.computeIfPresent(zoneId, (z, count) -> {
+                    if (count.get() <= 0) {
+                        return null;
+                    }
+                    zones.add(z);
+                    return count;
+                });
+            }
+        }
+
+        int expireBefore(long cutoffMillis) {
+            int expired = 0;
+            for (Map.Entry<Long, Membership> entry : members.entrySet()) {
+                if (entry.getValue().lastSeenMillis < cutoffMillis) {
+                    boolean removed = members.computeIfPresent(entry.getKey(), (id, current) -> {
+                        if (current.lastSeenMillis >= cutoffMillis) {
+                            return current;
+                        }
+                        decrement(current.zoneId);
+                        return null;
+                    }) == null;
+                    if (removed) {
+                        expired++;
+                    }
+                }
+            }
+            return expired;
+        }
+
+        private void decrement(long zoneId) {
+            AtomicInteger count = counts.get(zoneId);
+            if (count != null) {
+                count.decrementAndGet();
+            }
+        }
+    }
+
+    private record Membership(long zoneId, long lastSeenMillis) {
+    }
+}
@@ -34,10 +34,10 @@ public class Rating {
     @Column(name = "driver_id", nullable = false)
     private Long driverId;
 
-    @Column(name = "rider_rating", precision = 2, scale = 1)
+    @Column(name = "rider_rating", columnDefinition = "NUMERIC(2, 1)")
     private Double riderRating;
 
-    @Column(name = "driver_rating", precision = 2, scale = 1)
+    @Column(name = "driver_rating", columnDefinition = "NUMERIC(2, 1)")
     private Double driverRating;
 
     @Column(name = "rider_comment", columnDefinition = "TEXT")
@@ -2,14 +2,12 @@ package com.ridehailing.rating.service;
 
 import com.ridehailing.common.exception.BusinessException;
 import com.ridehailing.common.exception.ResourceNotFoundException;
-import com.ridehailing.driver.domain.Driver;
 import com.ridehailing.driver.repository.DriverRepository;
 import com.ridehailing.driver.service.DriverService;
 import com.ridehailing.rating.domain.Rating;
 import com.ridehailing.rating.dto.RatingRequestDto;
 import com.ridehailing.rating.dto.RatingResponseDto;
 import com.ridehailing.rating.repository.RatingRepository;
-import com.ridehailing.rider.domain.Rider;
 import com.ridehailing.rider.service.RiderService;
 import com.ridehailing.trip.domain.Trip;
 import com.ridehailing.trip.domain.TripStatus;
@@ -35,13 +33,13 @@ public class RatingService {
 
     @Transactional
     public RatingResponseDto rateDriver(RatingRequestDto request) {
-        Rider rider = riderService.getCurrentRider();
+        Long riderId = riderService.getCurrentRiderId();
         
         Trip trip = tripRepository.findById(request.getTripId())
                 .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
         
         // Validate trip belongs to rider
-        if (!trip.getRiderId().equals(rider.getId())) {
+        if (!trip.getRiderId().equals(riderId)) {
             throw new BusinessException("Not authorized to rate this trip");
         }
         
@@ -58,7 +56,7 @@ public class RatingService {
         Rating rating = ratingRepository.findByTripId(trip.getId())
                 .orElseGet(() -> Rating.builder()
                         .tripId(trip.getId())
-                        .riderId(rider.getId())
+                        .riderId(riderId)
                         .driverId(trip.getDriverId())
                         .build());
         
@@ -75,20 +73,20 @@ public class RatingService {
         updateDriverAverageRating(trip.getDriverId());
         
         log.info("Driver {} rated {} by rider {} for trip {}", 
-                trip.getDriverId(), request.getRating(), rider.getId(), trip.getId());
+                trip.getDriverId(), request.getRating(), riderId, trip.getId());
         
         return mapToResponseDto(rating);
     }
 
     @Transactional
     public RatingResponseDto rateRider(RatingRequestDto request) {
-        Driver driver = driverService.getCurrentDriver();
+        Long driverId = driverService.getCurrentDriverId();
         
         Trip trip = tripRepository.findById(request.getTripId())
                 .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
         
         // Validate trip belongs to driver
-        if (!trip.getDriverId().equals(driver.getId())) {
+        if (!trip.getDriverId().equals(driverId)) {
             throw new BusinessException("Not authorized to rate this trip");
         }
         
@@ -102,7 +100,7 @@ public class RatingService {
                 .orElseGet(() -> Rating.builder()
                         .tripId(trip.getId())
                         .riderId(trip.getRiderId())
-                        .driverId(driver.getId())
+                        .driverId(driverId)
                         .build());
         
         if (rating.getRiderRating() != null) {
@@ -115,7 +113,7 @@ public class RatingService {
         rating = ratingRepository.save(rating);
         
         log.info("Rider {} rated {} by driver {} for trip {}", 
-                trip.getRiderId(), request.getRating(), driver.getId(), trip.getId());
+                trip.getRiderId(), request.getRating(), driverId, trip.getId());
         
         return mapToResponseDto(rating);
     }
@@ -128,8 +126,8 @@ public class RatingService {
     }
 
     public List<RatingResponseDto> getDriverRatings() {
-        Driver driver = driverService.getCurrentDriver();
-        return ratingRepository.findByDriverId(driver.getId())
+        Long driverId = driverService.getCurrentDriverId();
+        return ratingRepository.findByDriverId(driverId)
                 .stream()
                 .map(this::mapToResponseDto)
                 .collect(Collectors.toList());
@@ -1,5 +1,6 @@
 package com.ridehailing.rider.service;
 
+import com.ridehailing.common.cache.EntityCache;
 import com.ridehailing.common.exception.ResourceNotFoundException;
 import com.ridehailing.common.security.SecurityUtils;
 import com.ridehailing.rider.domain.Rider;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,27 +25,35 @@ public class RiderService {
 
     private final RiderRepository riderRepository;
     private final SavedLocationRepository savedLocationRepository;
+    private final EntityCache<Long, Rider> riderByUserIdCache;
 
     public RiderProfileResponse getCurrentRiderProfile() {
-        Long userId = SecurityUtils.getCurrentUserId();
-        Rider rider = riderRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Rider profile not found"));
-        
-        return mapToProfileResponse(rider);
+        return mapToProfileResponse(getCurrentRider());
     }
 
     public Rider getCurrentRider() {
-        Long userId = SecurityUtils.getCurrentUserId();
-        return riderRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Rider profile not found"));
+        Long riderId = SecurityUtils.getCurrentRiderId();
+        Optional<Rider> rider = riderId != null
+                ? riderRepository.findById(riderId)
+                : riderByUserIdCache.get(SecurityUtils.getCurrentUserId(), riderRepository::findByUserId);
+        return rider.orElseThrow(() -> new ResourceNotFoundException("Rider profile not found"));
+    }
+
+    /**
+     * Current rider's profile id; answered from the token without a query unless
+     * the token predates embedded profile ids.
+     */
+    public Long getCurrentRiderId() {
+        Long riderId = SecurityUtils.getCurrentRiderId();
+        return riderId != null ? riderId : getCurrentRider().getId();
     }
 
     @Transactional
     public SavedLocationDto saveFavoriteLocation(SavedLocationDto dto) {
-        Rider rider = getCurrentRider();
+        Long riderId = getCurrentRiderId();
         
         SavedLocation location = SavedLocation.builder()
-                .riderId(rider.getId())
+                .riderId(riderId)
                 .label(dto.getLabel())
                 .latitude(dto.getLatitude())
                 .longitude(dto.getLongitude())
@@ -51,14 +61,14 @@ public class RiderService {
                 .build();
         
         location = savedLocationRepository.save(location);
-        log.info("Saved location created for rider: {}", rider.getId());
+        log.info("Saved location created for rider: {}", riderId);
         
         return mapToLocationDto(location);
     }
 
     public List<SavedLocationDto> getSavedLocations() {
-        Rider rider = getCurrentRider();
-        return savedLocationRepository.findByRiderId(rider.getId())
+        Long riderId = getCurrentRiderId();
+        return savedLocationRepository.findByRiderId(riderId)
                 .stream()
                 .map(this::mapToLocationDto)
                 .collect(Collectors.toList());
@@ -66,16 +76,16 @@ public class RiderService {
 
     @Transactional
     public void deleteSavedLocation(Long locationId) {
-        Rider rider = getCurrentRider();
+        Long riderId = getCurrentRiderId();
         SavedLocation location = savedLocationRepository.findById(locationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Saved location not found"));
         
-        if (!location.getRiderId().equals(rider.getId())) {
+        if (!location.getRiderId().equals(riderId)) {
             throw new ResourceNotFoundException("Saved location not found");
         }
         
         savedLocationRepository.delete(location);
-        log.info("Deleted saved location: {} for rider: {}", locationId, rider.getId());
+        log.info("Deleted saved location: {} for rider: {}", locationId, riderId);
     }
 
     private RiderProfileResponse mapToProfileResponse(Rider rider) {
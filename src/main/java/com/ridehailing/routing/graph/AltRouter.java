@@ -0,0 +1,297 @@
+package com.ridehailing.routing.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fastest-path queries on a {@link RoadGraph}.
+ *
+ * Point-to-point queries run A* with ALT landmark bounds (A*, Landmarks, Triangle inequality):
+ * for a handful of landmarks chosen far apart, travel times to and from every node are
+ * precomputed, and the triangle inequality turns them into a lower bound on the remaining
+ * time to the target. The bound is consistent, so each node is settled at most once.
+ * One-to-many and many-to-one queries run a single Dijkstra (on the reversed edges for
+ * many-to-one) that stops once every requested node is settled. Every query takes a time
+ * limit and stops once it is passed, so a far or disconnected node does not make the search
+ * cover the whole graph.
+ *
+ * Searches borrow a {@link SearchSpace} from a small pool, so queries do not allocate n-sized
+ * arrays. Each space holds about 36 bytes per node; the pool is created on demand up to
+ * {@code maxConcurrentSearches} spaces, and further queries wait up to {@code maxWaitMillis}
+ * for one to be returned before giving up, so callers can fall back to an estimate.
+ */
+public final class AltRouter {
+
+    private final RoadGraph graph;
+    // fromLandmark[l][v] = time(l -> v), toLandmark[l][v] = time(v -> l)
+    private final int[][] fromLandmark;
+    private final int[][] toLandmark;
+    private final BlockingQueue<SearchSpace> idleSpaces;
+    private final AtomicInteger createdSpaces = new AtomicInteger();
+    private final int maxSpaces;
+    private final long maxWaitMillis;
+
+    public AltRouter(RoadGraph graph, int landmarkCount, int maxConcurrentSearches, long maxWaitMillis) {
+        if (maxConcurrentSearches < 1) {
+            throw new IllegalArgumentException("At least one concurrent search is needed");
+        }
+        this.graph = graph;
+        this.maxSpaces = maxConcurrentSearches;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleSpaces = new ArrayBlockingQueue<>(maxConcurrentSearches);
+
+        int count = Math.min(landmarkCount, graph.nodeCount());
+        this.fromLandmark = new int[count][];
+        this.toLandmark = new int[count][];
+        selectLandmarks(count);
+    }
+
+    public RoadGraph graph() {
+        return graph;
+    }
+
+    public int landmarkCount() {
+        return fromLandmark.length;
+    }
+
+    /**
+     * @return fastest path from source to target, or null when the target is unreachable,
+     *         farther than maxTimeMillis, or no search space became free in time
+     */
+    public PathCost route(int source, int target, int maxTimeMillis) {
+        SearchSpace space = acquire();
+        if (space == null) {
+            return null;
+        }
+        try {
+            space.reset();
+            space.relax(source, 0, 0, lowerBound(source, target));
+
+            // Keys are lower bounds on the path through the node, so past the limit the target is too
+            while (!space.isEmpty() && space.peekKey() <= maxTimeMillis) {
+                int node = space.poll();
+                space.settle(node);
+                if (node == target) {
+                    return new PathCost(space.time[node], space.length[node]);
+                }
+                relaxForward(space, node, target);
+            }
+            return null;
+        } finally {
+            release(space);
+        }
+    }
+
+    /**
+     * Fastest times and lengths from one source to several targets in one search.
+     * Targets that are unreachable or farther than maxTimeMillis get {@link PathCost#UNREACHABLE}.
+     *
+     * @return false, leaving the outputs untouched, when no search space became free in time
+     */
+    public boolean routeToMany(int source, int[] targets, int maxTimeMillis,
+                               int[] timeMillisOut, int[] lengthMetersOut) {
+        return searchUntilSettled(source, targets, true, maxTimeMillis, timeMillisOut, lengthMetersOut);
+    }
+
+    /**
+     * Fastest times and lengths from several sources to one target in one search: Dijkstra
+     * from the target over the reversed edges, stopped once every source is settled or
+     * maxTimeMillis is passed. Sources that are unreachable or farther get
+     * {@link PathCost#UNREACHABLE}.
+     *
+     * @return false, leaving the outputs untouched, when no search space became free in time
+     */
+    public boolean routeFromMany(int[] sources, int target, int maxTimeMillis,
+                                 int[] timeMillisOut, int[] lengthMetersOut) {
+        return searchUntilSettled(target, sources, false, maxTimeMillis, timeMillisOut, lengthMetersOut);
+    }
+
+    private boolean searchUntilSettled(int root, int[] nodes, boolean forward, int maxTimeMillis,
+                                       int[] timeMillisOut, int[] lengthMetersOut) {
+        int[] start = forward ? graph.outStart : graph.inStart;
+        int[] adjacent = forward ? graph.outHead : graph.inTail;
+        int[] weight = forward ? graph.outTimeMillis : graph.inTimeMillis;
+        int[] edgeLength = forward ? graph.outLengthMeters : graph.inLengthMeters;
+
+        SearchSpace space = acquire();
+        if (space == null) {
+            return false;
+        }
+        try {
+            space.reset();
+            int remaining = 0;
+            for (int node : nodes) {
+                if (!space.marked(node)) {
+                    space.mark(node);
+                    remaining++;
+                }
+            }
+            space.relax(root, 0, 0, 0);
+
+            while (!space.isEmpty() && remaining > 0 && space.peekKey() <= maxTimeMillis) {
+                int node = space.poll();
+                space.settle(node);
+                if (space.marked(node)) {
+                    remaining--;
+                }
+                int nodeTime = space.time[node];
+                int nodeLength = space.length[node];
+                for (int e = start[node]; e < start[node + 1]; e++) {
+                    int next = adjacent[e];
+                    int time = nodeTime + weight[e];
+                    if (!space.settled(next) && time < space.timeTo(next)) {
+                        space.relax(next, time, nodeLength + edgeLength[e], time);
+                    }
+                }
+            }
+
+            for (int i = 0; i < nodes.length; i++) {
+                int node = nodes[i];
+                boolean done = space.settled(node);
+                timeMillisOut[i] = done ? space.time[node] : PathCost.UNREACHABLE;
+                lengthMetersOut[i] = done ? space.length[node] : PathCost.UNREACHABLE;
+            }
+            return true;
+        } finally {
+            release(space);
+        }
+    }
+
+    private void relaxForward(SearchSpace space, int node, int target) {
+        int nodeTime = space.time[node];
+        int nodeLength = space.length[node];
+        for (int e = graph.outStart[node]; e < graph.outStart[node + 1]; e++) {
+            int next = graph.outHead[e];
+            if (space.settled(next)) {
+                continue;
+            }
+            int time = nodeTime + graph.outTimeMillis[e];
+            if (time < space.timeTo(next)) {
+                space.relax(next, time, nodeLength + graph.outLengthMeters[e],
+                        (long) time + lowerBound(next, target));
+            }
+        }
+    }
+
+    /**
+     * Lower bound on time(node -> target) from the triangle inequality over all landmarks.
+     */
+    int lowerBound(int node, int target) {
+        int best = 0;
+        for (int l = 0; l < fromLandmark.length; l++) {
+            int[] from = fromLandmark[l];
+            int[] to = toLandmark[l];
+            // time(l -> target) - time(l -> node)
+            if (from[target] != SearchSpace.INFINITY && from[node] != SearchSpace.INFINITY) {
+                best = Math.max(best, from[target] - from[node]);
+            }
+            // time(node -> l) - time(target -> l)
+            if (to[node] != SearchSpace.INFINITY && to[target] != SearchSpace.INFINITY) {
+                best = Math.max(best, to[node] - to[target]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Farthest-point selection: each new landmark is the node farthest (in travel time)
+     * from the landmarks chosen so far, which spreads them around the graph's edge.
+     */
+    private void selectLandmarks(int count) {
+        if (count == 0) {
+            return;
+        }
+        int nodeCount = graph.nodeCount();
+        int[] minTime = new int[nodeCount];
+        Arrays.fill(minTime, SearchSpace.INFINITY);
+
+        // Start from the node farthest from node 0 rather than node 0 itself
+        int[] probe = fullSearch(0, true);
+        int landmark = farthest(probe);
+
+        for (int l = 0; l < count; l++) {
+            fromLandmark[l] = fullSearch(landmark, true);
+            toLandmark[l] = fullSearch(landmark, false);
+            for (int v = 0; v < nodeCount; v++) {
+                minTime[v] = Math.min(minTime[v], fromLandmark[l][v]);
+            }
+            landmark = farthest(minTime);
+        }
+    }
+
+    private static int farthest(int[] times) {
+        int best = 0;
+        for (int v = 1; v < times.length; v++) {
+            if (times[v] != SearchSpace.INFINITY && (times[best] == SearchSpace.INFINITY || times[v] > times[best])) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plain Dijkstra over the whole graph, forward or on the reverse edges.
+     */
+    private int[] fullSearch(int source, boolean forward) {
+        int[] start = forward ? graph.outStart : graph.inStart;
+        int[] adjacent = forward ? graph.outHead : graph.inTail;
+        int[] weight = forward ? graph.outTimeMillis : graph.inTimeMillis;
+
+        SearchSpace space = acquire();
+        if (space == null) {
+            throw new IllegalStateException("No search space for landmark selection");
+        }
+        try {
+            space.reset();
+            space.relax(source, 0, 0, 0);
+            while (!space.isEmpty()) {
+                int node = space.poll();
+                space.settle(node);
+                int nodeTime = space.time[node];
+                for (int e = start[node]; e < start[node + 1]; e++) {
+                    int next = adjacent[e];
+                    int time = nodeTime + weight[e];
+                    if (!space.settled(next) && time < space.timeTo(next)) {
+                        space.relax(next, time, 0, time);
+                    }
+                }
+            }
+
+            int[] result = new int[graph.nodeCount()];
+            for (int v = 0; v < result.length; v++) {
+                result[v] = space.timeTo(v);
+            }
+            return result;
+        } finally {
+            release(space);
+        }
+    }
+
+    /**
+     * @return a search space, or null when none became free within the wait limit
+     */
+    private SearchSpace acquire() {
+        SearchSpace space = idleSpaces.poll();
+        if (space != null) {
+            return space;
+        }
+        for (int created = createdSpaces.get(); created < maxSpaces; created = createdSpaces.get()) {
+            if (createdSpaces.compareAndSet(created, created + 1)) {
+                return new SearchSpace(graph.nodeCount());
+            }
+        }
+        try {
+            return idleSpaces.poll(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void release(SearchSpace space) {
+        idleSpaces.offer(space);
+    }
+}
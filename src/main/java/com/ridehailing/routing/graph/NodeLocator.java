@@ -0,0 +1,102 @@
+package com.ridehailing.routing.graph;
+
+import com.ridehailing.common.util.DistanceCalculator;
+import com.ridehailing.common.util.GeoGrid;
+
+import java.util.Arrays;
+
+/**
+ * Snaps coordinates to the nearest graph node.
+ * Nodes are sorted by grid cell into parallel cell id / node arrays, so a cell lookup is a
+ * binary search and the search visits rings of cells around the point until no closer node
+ * can exist.
+ */
+public final class NodeLocator {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int NODE_BITS = 31;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+
+    private final RoadGraph graph;
+    private final GeoGrid grid;
+    // Ascending cell ids and the node in each; cell ids need up to 34 bits
+    private final long[] cellIds;
+    private final int[] nodes;
+
+    public NodeLocator(RoadGraph graph, double cellSizeKm) {
+        this.graph = graph;
+        this.grid = new GeoGrid(cellSizeKm);
+        int nodeCount = graph.nodeCount();
+        long[] nodeCells = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodeCells[node] = grid.cellId(graph.latitude[node], graph.longitude[node]);
+        }
+
+        // Sort by the cell's rank among the occupied cells, which fits next to the node id
+        long[] occupied = Arrays.stream(nodeCells).sorted().distinct().toArray();
+        long[] rankNodes = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            rankNodes[node] = (long) Arrays.binarySearch(occupied, nodeCells[node]) << NODE_BITS | node;
+        }
+        Arrays.sort(rankNodes);
+
+        this.cellIds = new long[nodeCount];
+        this.nodes = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            cellIds[i] = occupied[(int) (rankNodes[i] >>> NODE_BITS)];
+            nodes[i] = (int) (rankNodes[i] & NODE_MASK);
+        }
+    }
+
+    /**
+     * @return nearest node within {@code maxDistanceKm}, or {@link #NOT_FOUND}
+     */
+    public int nearestNode(double latitude, double longitude, double maxDistanceKm) {
+        double cosLat = DistanceCalculator.cosLatitude(latitude);
+        int centerRow = grid.row(latitude);
+        int centerCol = grid.col(longitude);
+        int maxRing = Math.max(grid.rowSpan(maxDistanceKm), grid.colSpan(latitude, maxDistanceKm));
+        double minCellKm = grid.getCellSizeKm()
+                * Math.max(Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + maxRing * grid.getCellSizeDeg()))), 0.01);
+
+        int best = NOT_FOUND;
+        double bestDistance = maxDistanceKm;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                boolean edgeRow = Math.abs(row - centerRow) == ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int col = centerCol - ring; col <= centerCol + ring; col += step) {
+                    long cellId = grid.cellId(row, col);
+                    for (int i = lowerBound(cellId); i < cellIds.length && cellIds[i] == cellId; i++) {
+                        int node = nodes[i];
+                        double distance = DistanceCalculator.approximateDistance(
+                                latitude, longitude, cosLat, graph.latitude[node], graph.longitude[node]);
+                        if (distance <= bestDistance) {
+                            bestDistance = distance;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            if (ring * minCellKm > bestDistance) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private int lowerBound(long cellId) {
+        int low = 0;
+        int high = cellIds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cellIds[mid] < cellId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
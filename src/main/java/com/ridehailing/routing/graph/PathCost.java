@@ -0,0 +1,9 @@
+package com.ridehailing.routing.graph;
+
+/**
+ * Travel time and length of a fastest path.
+ */
+public record PathCost(int timeMillis, int lengthMeters) {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+}
@@ -0,0 +1,60 @@
+package com.ridehailing.routing.graph;
+
+/**
+ * Directed road graph in compressed sparse row (CSR) form.
+ *
+ * Node coordinates and edges live in primitive arrays. Outgoing edges of node v are
+ * {@code [outStart[v], outStart[v + 1])} in the forward arrays; the reverse arrays hold the
+ * same edges grouped by their target, for searches that run backwards from a destination.
+ * Edge weights are travel time in milliseconds and length in meters.
+ */
+public final class RoadGraph {
+
+    final double[] latitude;
+    final double[] longitude;
+
+    final int[] outStart;
+    final int[] outHead;
+    final int[] outTimeMillis;
+    final int[] outLengthMeters;
+
+    final int[] inStart;
+    final int[] inTail;
+    final int[] inTimeMillis;
+    final int[] inLengthMeters;
+
+    RoadGraph(double[] latitude, double[] longitude,
+              int[] outStart, int[] outHead, int[] outTimeMillis, int[] outLengthMeters,
+              int[] inStart, int[] inTail, int[] inTimeMillis, int[] inLengthMeters) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.outStart = outStart;
+        this.outHead = outHead;
+        this.outTimeMillis = outTimeMillis;
+        this.outLengthMeters = outLengthMeters;
+        this.inStart = inStart;
+        this.inTail = inTail;
+        this.inTimeMillis = inTimeMillis;
+        this.inLengthMeters = inLengthMeters;
+    }
+
+    public static RoadGraphBuilder builder() {
+        return new RoadGraphBuilder();
+    }
+
+    public int nodeCount() {
+        return latitude.length;
+    }
+
+    public int edgeCount() {
+        return outHead.length;
+    }
+
+    public double latitude(int node) {
+        return latitude[node];
+    }
+
+    public double longitude(int node) {
+        return longitude[node];
+    }
+}
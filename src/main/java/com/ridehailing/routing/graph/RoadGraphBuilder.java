@@ -0,0 +1,102 @@
+package com.ridehailing.routing.graph;
+
+import java.util.Arrays;
+
+/**
+ * Collects nodes and edges in growable primitive arrays, then packs them into a {@link RoadGraph}.
+ */
+public final class RoadGraphBuilder {
+
+    private double[] latitude = new double[1024];
+    private double[] longitude = new double[1024];
+    private int nodeCount;
+
+    private int[] edgeFrom = new int[4096];
+    private int[] edgeTo = new int[4096];
+    private int[] edgeTimeMillis = new int[4096];
+    private int[] edgeLengthMeters = new int[4096];
+    private int edgeCount;
+
+    RoadGraphBuilder() {
+    }
+
+    /**
+     * @return id of the new node, assigned sequentially from 0
+     */
+    public int addNode(double lat, double lon) {
+        if (nodeCount == latitude.length) {
+            latitude = Arrays.copyOf(latitude, nodeCount * 2);
+            longitude = Arrays.copyOf(longitude, nodeCount * 2);
+        }
+        latitude[nodeCount] = lat;
+        longitude[nodeCount] = lon;
+        return nodeCount++;
+    }
+
+    public RoadGraphBuilder addEdge(int from, int to, int lengthMeters, double speedKmh) {
+        if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+            throw new IllegalArgumentException("Edge references unknown node: " + from + " -> " + to);
+        }
+        if (speedKmh <= 0) {
+            throw new IllegalArgumentException("Speed must be positive");
+        }
+        if (edgeCount == edgeFrom.length) {
+            int capacity = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeTimeMillis = Arrays.copyOf(edgeTimeMillis, capacity);
+            edgeLengthMeters = Arrays.copyOf(edgeLengthMeters, capacity);
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeLengthMeters[edgeCount] = lengthMeters;
+        // meters / (km/h) * 3600 = milliseconds
+        edgeTimeMillis[edgeCount] = (int) Math.max(1, Math.round(lengthMeters * 3600.0 / speedKmh));
+        edgeCount++;
+        return this;
+    }
+
+    public RoadGraphBuilder addRoad(int a, int b, int lengthMeters, double speedKmh, boolean oneWay) {
+        addEdge(a, b, lengthMeters, speedKmh);
+        if (!oneWay) {
+            addEdge(b, a, lengthMeters, speedKmh);
+        }
+        return this;
+    }
+
+    public RoadGraph build() {
+        int[] outStart = new int[nodeCount + 1];
+        int[] outHead = new int[edgeCount];
+        int[] outTime = new int[edgeCount];
+        int[] outLength = new int[edgeCount];
+        pack(edgeFrom, edgeTo, outStart, outHead, outTime, outLength);
+
+        int[] inStart = new int[nodeCount + 1];
+        int[] inTail = new int[edgeCount];
+        int[] inTime = new int[edgeCount];
+        int[] inLength = new int[edgeCount];
+        pack(edgeTo, edgeFrom, inStart, inTail, inTime, inLength);
+
+        return new RoadGraph(
+                Arrays.copyOf(latitude, nodeCount), Arrays.copyOf(longitude, nodeCount),
+                outStart, outHead, outTime, outLength,
+                inStart, inTail, inTime, inLength);
+    }
+
+    // Counting sort of the edges by their key node into CSR arrays
+    private void pack(int[] key, int[] other, int[] start, int[] target, int[] time, int[] length) {
+        for (int e = 0; e < edgeCount; e++) {
+            start[key[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] cursor = Arrays.copyOf(start, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int position = cursor[key[e]]++;
+            target[position] = other[e];
+            time[position] = edgeTimeMillis[e];
+            length[position] = edgeLengthMeters[e];
+        }
+    }
+}
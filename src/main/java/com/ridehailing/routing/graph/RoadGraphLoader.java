@@ -0,0 +1,63 @@
+package com.ridehailing.routing.graph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads a road graph from a line-based text file exported from OpenStreetMap
+ * (optionally gzip-compressed, by {@code .gz} extension).
+ *
+ * <pre>
+ * # comment
+ * v &lt;lat&gt; &lt;lon&gt;                                   node; ids are assigned in file order from 0
+ * e &lt;from&gt; &lt;to&gt; &lt;lengthMeters&gt; &lt;speedKmh&gt; [oneway]  road segment; two-way unless oneway is 1
+ * </pre>
+ */
+public final class RoadGraphLoader {
+
+    private RoadGraphLoader() {
+    }
+
+    public static RoadGraph load(Path file) throws IOException {
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = file.toString().endsWith(".gz") ? new GZIPInputStream(raw) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return parse(reader);
+        }
+    }
+
+    static RoadGraph parse(BufferedReader reader) throws IOException {
+        RoadGraphBuilder builder = RoadGraph.builder();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0]) {
+                    case "v" -> builder.addNode(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    case "e" -> builder.addRoad(
+                            Integer.parseInt(parts[1]),
+                            Integer.parseInt(parts[2]),
+                            Integer.parseInt(parts[3]),
+                            Double.parseDouble(parts[4]),
+                            parts.length > 5 && "1".equals(parts[5]));
+                    default -> throw new IOException("Unknown record type '" + parts[0] + "'");
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid road graph line " + lineNumber + ": " + line, e);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ridehailing.routing.graph;
+
+import java.util.Arrays;
+
+/**
+ * Scratch state of one shortest-path search at a time: tentative times and lengths,
+ * an indexed binary min-heap, and per-node marks. Entries are validated with a
+ * generation stamp, so starting a new search is O(1) instead of clearing n-sized arrays;
+ * the stamps are only cleared when the generation wraps around.
+ */
+final class SearchSpace {
+
+    static final int INFINITY = Integer.MAX_VALUE;
+
+    final int[] time;
+    final int[] length;
+
+    private final int[] stamp;
+    private final int[] settledStamp;
+    private final int[] markStamp;
+    private int generation;
+
+    private final int[] heapNode;
+    private final long[] heapKey;
+    private final int[] heapPosition;
+    private int heapSize;
+
+    SearchSpace(int nodeCount) {
+        time = new int[nodeCount];
+        length = new int[nodeCount];
+        stamp = new int[nodeCount];
+        settledStamp = new int[nodeCount];
+        markStamp = new int[nodeCount];
+        heapNode = new int[nodeCount];
+        heapKey = new long[nodeCount];
+        heapPosition = new int[nodeCount];
+    }
+
+    void reset() {
+        if (++generation == 0) {
+            // Every stamp value has been used; old stamps would match again
+            Arrays.fill(stamp, 0);
+            Arrays.fill(settledStamp, 0);
+            Arrays.fill(markStamp, 0);
+            generation = 1;
+        }
+        heapSize = 0;
+    }
+
+    boolean reached(int node) {
+        return stamp[node] == generation;
+    }
+
+    int timeTo(int node) {
+        return reached(node) ? time[node] : INFINITY;
+    }
+
+    int lengthTo(int node) {
+        return reached(node) ? length[node] : INFINITY;
+    }
+
+    boolean settled(int node) {
+        return settledStamp[node] == generation;
+    }
+
+    void settle(int node) {
+        settledStamp[node] = generation;
+    }
+
+    void mark(int node) {
+        markStamp[node] = generation;
+    }
+
+    boolean marked(int node) {
+        return markStamp[node] == generation;
+    }
+
+    /**
+     * Record a better tentative time for the node and queue it with the given key.
+     */
+    void relax(int node, int newTime, int newLength, long key) {
+        boolean queued = reached(node) && !settled(node);
+        stamp[node] = generation;
+        time[node] = newTime;
+        length[node] = newLength;
+        if (queued) {
+            decreaseKey(node, key);
+        } else {
+            push(node, key);
+        }
+    }
+
+    boolean isEmpty() {
+        return heapSize == 0;
+    }
+
+    long peekKey() {
+        return heapKey[0];
+    }
+
+    int poll() {
+        int top = heapNode[0];
+        heapSize--;
+        if (heapSize > 0) {
+            heapNode[0] = heapNode[heapSize];
+            heapKey[0] = heapKey[heapSize];
+            heapPosition[heapNode[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void push(int node, long key) {
+        int position = heapSize++;
+        heapNode[position] = node;
+        heapKey[position] = key;
+        heapPosition[node] = position;
+        siftUp(position);
+    }
+
+    private void decreaseKey(int node, long key) {
+        int position = heapPosition[node];
+        heapKey[position] = key;
+        siftUp(position);
+    }
+
+    private void siftUp(int position) {
+        int node = heapNode[position];
+        long key = heapKey[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heapKey[parent] <= key) {
+                break;
+            }
+            move(parent, position);
+            position = parent;
+        }
+        heapNode[position] = node;
+        heapKey[position] = key;
+        heapPosition[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heapNode[position];
+        long key = heapKey[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) {
+                child++;
+            }
+            if (heapKey[child] >= key) {
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        heapNode[position] = node;
+        heapKey[position] = key;
+        heapPosition[node] = position;
+    }
+
+    private void move(int from, int to) {
+        heapNode[to] = heapNode[from];
+        heapKey[to] = heapKey[from];
+        heapPosition[heapNode[to]] = to;
+    }
+}
@@ -0,0 +1,218 @@
+package com.ridehailing.routing.service;
+
+import com.ridehailing.common.util.DistanceCalculator;
+import com.ridehailing.routing.graph.AltRouter;
+import com.ridehailing.routing.graph.NodeLocator;
+import com.ridehailing.routing.graph.PathCost;
+import com.ridehailing.routing.graph.RoadGraph;
+import com.ridehailing.routing.graph.RoadGraphLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Road-network distance and travel time between coordinates.
+ *
+ * The graph is loaded once at startup from {@code app.routing.graph-file}. Both points are
+ * snapped to their nearest road node and the legs to the snapped nodes are added at the
+ * fallback speed. Without a graph, or when a point is off the network or unreachable,
+ * the estimate falls back to straight-line distance.
+ *
+ * Searches stop after a multiple of the (farthest origin's) straight-line time, capped at
+ * {@code app.routing.max-search-seconds}. A point-to-point search that hits the limit falls
+ * back to straight line; origins of a one-to-many search not reached by then are estimated at
+ * no less than the limit, so they rank behind every origin that was reached. When every
+ * search slot stays busy for {@code app.routing.max-search-wait-ms}, straight-line estimates
+ * are returned instead of queueing further.
+ */
+@Service
+@Slf4j
+public class EtaService {
+
+    // Floor for the search limit, so close origins are not cut off by short detours
+    private static final long MIN_SEARCH_MILLIS = 300_000;
+
+    private final AltRouter router;
+    private final NodeLocator locator;
+    private final double maxSnapKm;
+    private final double fallbackSpeedKmh;
+    private final double searchDetourFactor;
+    private final long maxSearchMillis;
+
+    public EtaService(
+            @Value("${app.routing.graph-file:}") String graphFile,
+            @Value("${app.routing.landmarks:8}") int landmarks,
+            @Value("${app.routing.max-concurrent-searches:8}") int maxConcurrentSearches,
+            @Value("${app.routing.max-search-wait-ms:50}") long maxSearchWaitMillis,
+            @Value("${app.routing.snap-cell-size-km:0.25}") double snapCellSizeKm,
+            @Value("${app.routing.max-snap-km:1.0}") double maxSnapKm,
+            @Value("${app.routing.fallback-speed-kmh:25.0}") double fallbackSpeedKmh,
+            @Value("${app.routing.search-detour-factor:3.0}") double searchDetourFactor,
+            @Value("${app.routing.max-search-seconds:1800}") long maxSearchSeconds) {
+        this.maxSnapKm = maxSnapKm;
+        this.fallbackSpeedKmh = fallbackSpeedKmh;
+        this.searchDetourFactor = searchDetourFactor;
+        this.maxSearchMillis = maxSearchSeconds * 1000;
+
+        RoadGraph graph = loadGraph(graphFile);
+        if (graph != null) {
+            long start = System.currentTimeMillis();
+            this.router = new AltRouter(graph, landmarks, maxConcurrentSearches, maxSearchWaitMillis);
+            this.locator = new NodeLocator(graph, snapCellSizeKm);
+            log.info("Road graph ready: {} nodes, {} edges, {} landmarks in {} ms",
+                    graph.nodeCount(), graph.edgeCount(), router.landmarkCount(),
+                    System.currentTimeMillis() - start);
+        } else {
+            this.router = null;
+            this.locator = null;
+        }
+    }
+
+    public boolean isRoadNetworkAvailable() {
+        return router != null;
+    }
+
+    public RouteEstimate estimate(double fromLatitude, double fromLongitude,
+                                  double toLatitude, double toLongitude) {
+        if (router == null) {
+            return straightLine(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        }
+
+        int source = locator.nearestNode(fromLatitude, fromLongitude, maxSnapKm);
+        int target = locator.nearestNode(toLatitude, toLongitude, maxSnapKm);
+        if (source == NodeLocator.NOT_FOUND || target == NodeLocator.NOT_FOUND) {
+            log.debug("Point off the road network, using straight-line estimate");
+            return straightLine(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        }
+
+        RoadGraph graph = router.graph();
+        double nodeDistanceKm = DistanceCalculator.calculateDistance(
+                graph.latitude(source), graph.longitude(source), graph.latitude(target), graph.longitude(target));
+        PathCost path = router.route(source, target, searchLimitMillis(nodeDistanceKm));
+        if (path == null) {
+            log.debug("No road path within the limit between nodes {} and {}, using straight-line estimate",
+                    source, target);
+            return straightLine(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        }
+
+        double accessKm = DistanceCalculator.calculateDistance(
+                fromLatitude, fromLongitude, graph.latitude(source), graph.longitude(source))
+                + DistanceCalculator.calculateDistance(
+                toLatitude, toLongitude, graph.latitude(target), graph.longitude(target));
+        double distanceKm = path.lengthMeters() / 1000.0 + accessKm;
+        long durationSeconds = Math.round(path.timeMillis() / 1000.0 + secondsAtFallbackSpeed(accessKm));
+        return new RouteEstimate(distanceKm, durationSeconds, true);
+    }
+
+    /**
+     * Estimates from several origins to one destination, e.g. candidate drivers to a pickup,
+     * with a single reverse search from the destination instead of one query per origin.
+     * Results are in the order of the origins.
+     */
+    public RouteEstimate[] estimateFromMany(double[] fromLatitudes, double[] fromLongitudes,
+                                            double toLatitude, double toLongitude) {
+        int count = fromLatitudes.length;
+        RouteEstimate[] estimates = new RouteEstimate[count];
+        int target = router != null
+                ? locator.nearestNode(toLatitude, toLongitude, maxSnapKm)
+                : NodeLocator.NOT_FOUND;
+        if (target == NodeLocator.NOT_FOUND) {
+            for (int i = 0; i < count; i++) {
+                estimates[i] = straightLine(fromLatitudes[i], fromLongitudes[i], toLatitude, toLongitude);
+            }
+            return estimates;
+        }
+
+        // Origins off the network are left out of the search and fall back to straight line
+        int[] originNode = new int[count];
+        int[] sources = new int[count];
+        int snapped = 0;
+        for (int i = 0; i < count; i++) {
+            originNode[i] = locator.nearestNode(fromLatitudes[i], fromLongitudes[i], maxSnapKm);
+            if (originNode[i] != NodeLocator.NOT_FOUND) {
+                sources[snapped++] = originNode[i];
+            }
+        }
+        RoadGraph graph = router.graph();
+        double farthestKm = 0;
+        for (int j = 0; j < snapped; j++) {
+            farthestKm = Math.max(farthestKm, DistanceCalculator.calculateDistance(
+                    graph.latitude(sources[j]), graph.longitude(sources[j]),
+                    graph.latitude(target), graph.longitude(target)));
+        }
+        int limitMillis = searchLimitMillis(farthestKm);
+        int[] timeMillis = new int[snapped];
+        int[] lengthMeters = new int[snapped];
+        if (!router.routeFromMany(Arrays.copyOf(sources, snapped), target, limitMillis, timeMillis, lengthMeters)) {
+            log.warn("All road searches busy, using straight-line pickup estimates");
+            for (int i = 0; i < count; i++) {
+                estimates[i] = straightLine(fromLatitudes[i], fromLongitudes[i], toLatitude, toLongitude);
+            }
+            return estimates;
+        }
+
+        double targetAccessKm = DistanceCalculator.calculateDistance(
+                toLatitude, toLongitude, graph.latitude(target), graph.longitude(target));
+        int searched = 0;
+        for (int i = 0; i < count; i++) {
+            int source = originNode[i];
+            int j = source != NodeLocator.NOT_FOUND ? searched++ : -1;
+            if (j < 0) {
+                estimates[i] = straightLine(fromLatitudes[i], fromLongitudes[i], toLatitude, toLongitude);
+                continue;
+            }
+            if (timeMillis[j] == PathCost.UNREACHABLE) {
+                RouteEstimate straight = straightLine(fromLatitudes[i], fromLongitudes[i], toLatitude, toLongitude);
+                estimates[i] = new RouteEstimate(straight.distanceKm(),
+                        Math.max(straight.durationSeconds(), limitMillis / 1000 + 1), false);
+                continue;
+            }
+            double accessKm = targetAccessKm + DistanceCalculator.calculateDistance(
+                    fromLatitudes[i], fromLongitudes[i], graph.latitude(source), graph.longitude(source));
+            estimates[i] = new RouteEstimate(
+                    lengthMeters[j] / 1000.0 + accessKm,
+                    Math.round(timeMillis[j] / 1000.0 + secondsAtFallbackSpeed(accessKm)),
+                    true);
+        }
+        return estimates;
+    }
+
+    private RouteEstimate straightLine(double fromLatitude, double fromLongitude,
+                                       double toLatitude, double toLongitude) {
+        double distanceKm = DistanceCalculator.calculateDistance(
+                fromLatitude, fromLongitude, toLatitude, toLongitude);
+        return new RouteEstimate(distanceKm, Math.round(secondsAtFallbackSpeed(distanceKm)), false);
+    }
+
+    private int searchLimitMillis(double straightLineKm) {
+        return (int) Math.min(maxSearchMillis, Math.max(MIN_SEARCH_MILLIS,
+                Math.round(searchDetourFactor * secondsAtFallbackSpeed(straightLineKm) * 1000)));
+    }
+
+    private double secondsAtFallbackSpeed(double distanceKm) {
+        return distanceKm / fallbackSpeedKmh * 3600.0;
+    }
+
+    private static RoadGraph loadGraph(String graphFile) {
+        if (graphFile == null || graphFile.isBlank()) {
+            log.info("No road graph configured, ETAs use straight-line distance");
+            return null;
+        }
+        Path path = Path.of(graphFile);
+        if (!Files.isReadable(path)) {
+            log.warn("Road graph file {} not found, ETAs use straight-line distance", path);
+            return null;
+        }
+        try {
+            return RoadGraphLoader.load(path);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Could not load road graph from {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.ridehailing.routing.service;
+
+/**
+ * Driving distance and time between two points.
+ *
+ * @param roadNetwork false when the estimate is a straight-line fallback
+ */
+public record RouteEstimate(double distanceKm, long durationSeconds, boolean roadNetwork) {
+}
@@ -63,8 +63,10 @@ public class TripController {
 
     @GetMapping("/{tripId}")
     @PreAuthorize("hasAnyRole('RIDER', 'DRIVER')")
-    public ResponseEntity<ApiResponse<TripResponseDto>> getTripById(@PathVariable Long tripId) {
-        TripResponseDto trip = tripService.getTripById(tripId);
+    public ResponseEntity<ApiResponse<TripResponseDto>> getTripById(
+            @PathVariable Long tripId,
+            @RequestParam(defaultValue = "false") boolean includeTrace) {
+        TripResponseDto trip = tripService.getTripById(tripId, includeTrace);
         return ResponseEntity.ok(ApiResponse.success(trip));
     }
 
@@ -12,6 +12,8 @@ import java.time.LocalDateTime;
 @Table(name = "trips", indexes = {
     @Index(name = "idx_trip_rider_id", columnList = "rider_id"),
     @Index(name = "idx_trip_driver_id", columnList = "driver_id"),
+    @Index(name = "idx_trip_rider_status", columnList = "rider_id, status"),
+    @Index(name = "idx_trip_driver_status", columnList = "driver_id, status"),
     @Index(name = "idx_trip_status", columnList = "status"),
     @Index(name = "idx_trip_requested_at", columnList = "requested_at")
 })
@@ -83,4 +85,7 @@ public class Trip {
 
     @Column(name = "cancelled_at")
     private LocalDateTime cancelledAt;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,18 @@
+package com.ridehailing.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TracePointDto {
+    private LocalDateTime recordedAt;
+    private Double latitude;
+    private Double longitude;
+}
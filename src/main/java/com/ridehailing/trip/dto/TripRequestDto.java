@@ -23,4 +23,7 @@ public class TripRequestDto {
     
     @NotNull(message = "Destination longitude is required")
     private Double destinationLongitude;
+    
+    // Optional: quote id from /api/pricing/estimate, locks the quoted fare
+    private String quoteId;
 }
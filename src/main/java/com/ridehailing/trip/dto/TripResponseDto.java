@@ -2,6 +2,7 @@ package com.ridehailing.trip.dto;
 
 import com.ridehailing.trip.domain.PaymentStatus;
 import com.ridehailing.trip.domain.TripStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +10,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -33,4 +35,8 @@ public class TripResponseDto {
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
     private LocalDateTime cancelledAt;
+    
+    // Only filled when requested with includeTrace=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<TracePointDto> trace;
 }
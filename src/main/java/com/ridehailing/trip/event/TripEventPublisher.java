@@ -22,6 +22,11 @@ public class TripEventPublisher {
         log.info("Published trip.requested event for trip: {}", event.getTripId());
     }
 
+    public void publishTripDriverAssigned(TripEventDto event) {
+        kafkaTemplate.send(Constants.TOPIC_TRIP_DRIVER_ASSIGNED, event.getTripId().toString(), event);
+        log.info("Published trip.driver-assigned event for trip: {}", event.getTripId());
+    }
+
     public void publishTripAccepted(TripEventDto event) {
         kafkaTemplate.send(Constants.TOPIC_TRIP_ACCEPTED, event.getTripId().toString(), event);
         log.info("Published trip.accepted event for trip: {}", event.getTripId());
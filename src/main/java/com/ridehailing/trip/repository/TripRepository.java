@@ -5,10 +5,13 @@ import com.ridehailing.trip.domain.TripStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,12 +24,31 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
     
     List<Trip> findByStatus(TripStatus status);
     
+    List<Trip> findByStatusIn(Collection<TripStatus> statuses);
+    
+    List<TripRequestView> findRequestsByStatus(TripStatus status);
+    
     @Query("SELECT t FROM Trip t WHERE t.riderId = :riderId AND t.status IN ('REQUESTED', 'ACCEPTED', 'IN_PROGRESS')")
     Optional<Trip> findActiveTrip(@Param("riderId") Long riderId);
     
     @Query("SELECT t FROM Trip t WHERE t.driverId = :driverId AND t.status IN ('ACCEPTED', 'IN_PROGRESS')")
     Optional<Trip> findActiveDriverTrip(@Param("driverId") Long driverId);
     
+    @Modifying
+    @Query("UPDATE Trip t SET t.driverId = :driverId, t.version = t.version + 1 WHERE t.id = :tripId " +
+           "AND t.status = 'REQUESTED' AND t.driverId IS NULL")
+    int assignDriver(@Param("tripId") Long tripId, @Param("driverId") Long driverId);
+    
+    @Modifying
+    @Query("UPDATE Trip t SET t.driverId = NULL, t.version = t.version + 1 WHERE t.id = :tripId " +
+           "AND t.status = 'REQUESTED' AND t.driverId = :driverId")
+    int unassignDriver(@Param("tripId") Long tripId, @Param("driverId") Long driverId);
+    
+    @Modifying
+    @Query("UPDATE Trip t SET t.status = com.ridehailing.trip.domain.TripStatus.CANCELLED, t.cancelledAt = :cancelledAt, " +
+           "t.version = t.version + 1 WHERE t.id = :tripId AND t.status = 'REQUESTED'")
+    int expireRequest(@Param("tripId") Long tripId, @Param("cancelledAt") LocalDateTime cancelledAt);
+    
     @Query("SELECT COUNT(t) FROM Trip t WHERE t.status = 'REQUESTED'")
     long countActiveRequests();
     
@@ -0,0 +1,21 @@
+package com.ridehailing.trip.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a requested trip that dispatch needs, so sweeps do not load whole trips.
+ */
+public interface TripRequestView {
+
+    Long getId();
+
+    Long getRiderId();
+
+    Long getDriverId();
+
+    Double getOriginLatitude();
+
+    Double getOriginLongitude();
+
+    LocalDateTime getRequestedAt();
+}
@@ -0,0 +1,13 @@
+package com.ridehailing.trip.repository;
+
+import com.ridehailing.trip.domain.TripTraceChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TripTraceChunkRepository extends JpaRepository<TripTraceChunk, Long> {
+    
+    List<TripTraceChunk> findByTripIdOrderBySequenceAsc(Long tripId);
+}
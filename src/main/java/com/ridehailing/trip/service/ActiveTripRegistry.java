@@ -0,0 +1,251 @@
+package com.ridehailing.trip.service;
+
+import com.ridehailing.common.cache.EntityCacheManager;
+import com.ridehailing.trip.domain.Trip;
+import com.ridehailing.trip.domain.TripStatus;
+import com.ridehailing.trip.repository.TripRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of every non-terminal trip, indexed by trip, rider and driver, so active-trip
+ * polling is a hash lookup instead of a Postgres query.
+ *
+ * Postgres stays the source of truth: transitions are applied here after their transaction
+ * commits and announced to other nodes, which reload the trip. A periodic reconcile reloads all
+ * active trips to repair anything a lost message or a failed node left behind. Until the first
+ * load completes, lookups fall back to the repository.
+ *
+ * Snapshots are detached copies shared between threads; callers only read them.
+ */
+@Component
+@Slf4j
+public class ActiveTripRegistry {
+
+    static final Set<TripStatus> ACTIVE_STATUSES = EnumSet.of(
+            TripStatus.REQUESTED, TripStatus.ACCEPTED, TripStatus.IN_PROGRESS);
+    private static final Set<TripStatus> DRIVER_ACTIVE_STATUSES = EnumSet.of(
+            TripStatus.ACCEPTED, TripStatus.IN_PROGRESS);
+    private static final String INVALIDATION_NAME = "active-trips";
+
+    private final TripRepository tripRepository;
+    private final EntityCacheManager entityCacheManager;
+    private final Map<Long, Entry> byTripId = new ConcurrentHashMap<>();
+    private final Map<Long, Long> tripIdByRider = new ConcurrentHashMap<>();
+    private final Map<Long, Long> tripIdByDriver = new ConcurrentHashMap<>();
+    // Trips that ended since the last reconcile, so its older results cannot revive them
+    private final Map<Long, Entry> ended = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public ActiveTripRegistry(TripRepository tripRepository, EntityCacheManager entityCacheManager,
+                              MeterRegistry meterRegistry) {
+        this.tripRepository = tripRepository;
+        this.entityCacheManager = entityCacheManager;
+        entityCacheManager.subscribe(INVALIDATION_NAME, tripId -> refresh(Long.valueOf(tripId)));
+        Gauge.builder("trip.active.registry.size", byTripId, Map::size)
+                .register(meterRegistry);
+    }
+
+    public Optional<Trip> findActiveTrip(Long tripId) {
+        if (!loaded) {
+            return tripRepository.findById(tripId).filter(trip -> ACTIVE_STATUSES.contains(trip.getStatus()));
+        }
+        return Optional.ofNullable(byTripId.get(tripId)).map(Entry::trip);
+    }
+
+    public Optional<Trip> findActiveRiderTrip(Long riderId) {
+        if (!loaded) {
+            return tripRepository.findActiveTrip(riderId);
+        }
+        return Optional.ofNullable(tripIdByRider.get(riderId))
+                .map(byTripId::get)
+                .map(Entry::trip)
+                .filter(trip -> trip.getRiderId().equals(riderId));
+    }
+
+    public Optional<Trip> findActiveDriverTrip(Long driverId) {
+        if (!loaded) {
+            return tripRepository.findActiveDriverTrip(driverId);
+        }
+        return Optional.ofNullable(tripIdByDriver.get(driverId))
+                .map(byTripId::get)
+                .map(Entry::trip)
+                .filter(trip -> driverId.equals(trip.getDriverId())
+                        && DRIVER_ACTIVE_STATUSES.contains(trip.getStatus()));
+    }
+
+    /**
+     * Record the trip's state once the surrounding transaction commits (immediately when
+     * there is none); the copy is taken then, so it carries the committed version.
+     */
+    public void update(Trip trip) {
+        afterCommit(() -> {
+            apply(snapshot(trip));
+            entityCacheManager.publish(INVALIDATION_NAME, trip.getId());
+        });
+    }
+
+    /**
+     * Record a driver assignment written by a bulk update, which bumps the version by one;
+     * a null driver records that the assignment was withdrawn.
+     */
+    public void assigned(Long tripId, Long driverId) {
+        afterCommit(() -> {
+            Entry entry = byTripId.get(tripId);
+            if (entry != null) {
+                Trip trip = snapshot(entry.trip());
+                trip.setDriverId(driverId);
+                trip.setVersion(trip.getVersion() + 1);
+                apply(trip);
+            } else {
+                refresh(tripId);
+            }
+            entityCacheManager.publish(INVALIDATION_NAME, tripId);
+        });
+    }
+
+    /**
+     * Reload a trip changed by a bulk update, here and on other nodes, once the surrounding
+     * transaction commits.
+     */
+    public void reload(Long tripId) {
+        afterCommit(() -> {
+            refresh(tripId);
+            entityCacheManager.publish(INVALIDATION_NAME, tripId);
+        });
+    }
+
+    public int size() {
+        return byTripId.size();
+    }
+
+    /**
+     * Reload every active trip and drop entries for trips that ended elsewhere. Entries
+     * applied while the query ran are left alone: they are at least as new as its results.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.trip.active-registry.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        long startedAt = System.nanoTime();
+        List<Trip> active;
+        try {
+            active = tripRepository.findByStatusIn(ACTIVE_STATUSES);
+        } catch (RuntimeException e) {
+            log.warn("Active trip reconcile failed: {}", e.getMessage());
+            return;
+        }
+        Set<Long> activeIds = new HashSet<>();
+        for (Trip trip : active) {
+            activeIds.add(trip.getId());
+            apply(snapshot(trip));
+        }
+        byTripId.forEach((tripId, entry) -> {
+            if (!activeIds.contains(tripId) && entry.appliedAtNanos() - startedAt < 0) {
+                remove(tripId, entry);
+            }
+        });
+        ended.values().removeIf(entry -> entry.appliedAtNanos() - startedAt < 0);
+        if (!loaded) {
+            log.info("Active trip registry loaded with {} trips", byTripId.size());
+            loaded = true;
+        }
+    }
+
+    void refresh(Long tripId) {
+        try {
+            tripRepository.findById(tripId).ifPresent(trip -> apply(snapshot(trip)));
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh active trip {}: {}", tripId, e.getMessage());
+        }
+    }
+
+    private synchronized void apply(Trip trip) {
+        Entry previous = byTripId.get(trip.getId());
+        Entry end = ended.get(trip.getId());
+        if ((previous != null && previous.trip().getVersion() > trip.getVersion())
+                || (end != null && end.trip().getVersion() >= trip.getVersion())) {
+            return;
+        }
+        if (!ACTIVE_STATUSES.contains(trip.getStatus())) {
+            ended.put(trip.getId(), new Entry(trip, System.nanoTime()));
+            if (previous != null) {
+                remove(trip.getId(), previous);
+            }
+            return;
+        }
+        if (previous != null && previous.trip().getDriverId() != null
+                && !previous.trip().getDriverId().equals(trip.getDriverId())) {
+            tripIdByDriver.remove(previous.trip().getDriverId(), trip.getId());
+        }
+        byTripId.put(trip.getId(), new Entry(trip, System.nanoTime()));
+        tripIdByRider.put(trip.getRiderId(), trip.getId());
+        if (trip.getDriverId() != null && DRIVER_ACTIVE_STATUSES.contains(trip.getStatus())) {
+            tripIdByDriver.put(trip.getDriverId(), trip.getId());
+        }
+    }
+
+    private synchronized void remove(Long tripId, Entry entry) {
+        if (!byTripId.remove(tripId, entry)) {
+            return;
+        }
+        tripIdByRider.remove(entry.trip().getRiderId(), tripId);
+        if (entry.trip().getDriverId() != null) {
+            tripIdByDriver.remove(entry.trip().getDriverId(), tripId);
+        }
+    }
+
+    /**
+     * Detached copy of the trip; also used to modify a trip without touching a shared snapshot.
+     */
+    static Trip snapshot(Trip trip) {
+        return Trip.builder()
+                .id(trip.getId())
+                .riderId(trip.getRiderId())
+                .driverId(trip.getDriverId())
+                .status(trip.getStatus())
+                .originLatitude(trip.getOriginLatitude())
+                .originLongitude(trip.getOriginLongitude())
+                .destinationLatitude(trip.getDestinationLatitude())
+                .destinationLongitude(trip.getDestinationLongitude())
+                .estimatedFare(trip.getEstimatedFare())
+                .finalFare(trip.getFinalFare())
+                .distanceKm(trip.getDistanceKm())
+                .surgeMultiplier(trip.getSurgeMultiplier())
+                .paymentStatus(trip.getPaymentStatus())
+                .requestedAt(trip.getRequestedAt())
+                .acceptedAt(trip.getAcceptedAt())
+                .startedAt(trip.getStartedAt())
+                .completedAt(trip.getCompletedAt())
+                .cancelledAt(trip.getCancelledAt())
+                .version(trip.getVersion() != null ? trip.getVersion() : 0L)
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry(Trip trip, long appliedAtNanos) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.ridehailing.trip.service;
+
+import java.util.Arrays;
+
+/**
+ * Sparse min-cost assignment of trips to drivers with Bertsekas' auction algorithm.
+ *
+ * Trips bid for drivers; each trip only sees its own candidate list (CSR layout),
+ * so the cost of a round is proportional to the number of candidate edges rather
+ * than trips x drivers. Every trip additionally owns a private dummy object priced
+ * at {@code unassignedCost}: a trip that is outbid everywhere, or has no candidates,
+ * settles on its dummy and stays unmatched, which keeps the problem always feasible.
+ *
+ * The result is within {@code tripCount * epsilon} of the optimal total cost.
+ * There are more drivers than trips, so the auction runs as a single forward phase:
+ * epsilon scaling would leave stale prices on drivers that end up unassigned,
+ * which breaks optimality for asymmetric problems.
+ */
+public final class AuctionAssignment {
+
+    public static final int UNASSIGNED = -1;
+
+    private AuctionAssignment() {
+    }
+
+    /**
+     * @param tripCount       number of trips (bidders)
+     * @param driverCount     number of drivers (objects)
+     * @param candidateStart  CSR offsets, length tripCount + 1; trip i's candidates are
+     *                        [candidateStart[i], candidateStart[i + 1])
+     * @param candidateDriver driver index of each candidate edge
+     * @param candidateCost   cost of each candidate edge (e.g. pickup time), non-negative
+     * @param unassignedCost  cost of leaving a trip unmatched; should exceed any acceptable edge cost
+     * @param epsilon         final bid increment, in cost units
+     * @return driver index per trip, or {@link #UNASSIGNED}
+     */
+    public static int[] solve(int tripCount, int driverCount, int[] candidateStart, int[] candidateDriver,
+                              double[] candidateCost, double unassignedCost, double epsilon) {
+        int[] result = new int[tripCount];
+        if (tripCount == 0) {
+            return result;
+        }
+
+        double[] price = new double[driverCount + tripCount];
+        int[] owner = new int[driverCount + tripCount];
+        int[] assigned = new int[tripCount];
+        int[] queue = new int[tripCount];
+
+        Arrays.fill(owner, UNASSIGNED);
+        for (int i = 0; i < tripCount; i++) {
+            queue[i] = i;
+        }
+        int head = 0;
+        int pending = tripCount;
+
+        while (pending > 0) {
+            int trip = queue[head];
+            head = head + 1 == tripCount ? 0 : head + 1;
+            pending--;
+
+            // Dummy object first, then the real candidates
+            int best = driverCount + trip;
+            double bestValue = -unassignedCost - price[best];
+            double secondValue = Double.NEGATIVE_INFINITY;
+            for (int k = candidateStart[trip]; k < candidateStart[trip + 1]; k++) {
+                int driver = candidateDriver[k];
+                double value = -candidateCost[k] - price[driver];
+                if (value > bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = driver;
+                } else if (value > secondValue) {
+                    secondValue = value;
+                }
+            }
+            if (secondValue == Double.NEGATIVE_INFINITY) {
+                secondValue = bestValue;
+            }
+
+            price[best] += bestValue - secondValue + epsilon;
+            int outbid = owner[best];
+            owner[best] = trip;
+            assigned[trip] = best;
+            if (outbid != UNASSIGNED) {
+                assigned[outbid] = UNASSIGNED;
+                int tail = head + pending;
+                queue[tail >= tripCount ? tail - tripCount : tail] = outbid;
+                pending++;
+            }
+        }
+
+        for (int i = 0; i < tripCount; i++) {
+            result[i] = assigned[i] < driverCount ? assigned[i] : UNASSIGNED;
+        }
+        return result;
+    }
+}
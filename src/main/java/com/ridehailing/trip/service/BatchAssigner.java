@@ -0,0 +1,107 @@
+package com.ridehailing.trip.service;
+
+import com.ridehailing.driver.service.DriverReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns a window of pending trips to drivers at once, minimising the total pickup time.
+ * Each trip contributes its nearest candidates with their road ETA; the resulting sparse
+ * bipartite problem is solved with {@link AuctionAssignment}, so two nearby requests can no
+ * longer both grab the same best driver. Drivers already reserved elsewhere are left out,
+ * and each winner is reserved before the assignment is returned.
+ */
+@Component
+@Slf4j
+public class BatchAssigner {
+
+    private final DriverMatchingService driverMatchingService;
+    private final DriverReservationService driverReservationService;
+    private final int candidatesPerTrip;
+    private final double epsilonSeconds;
+
+    public BatchAssigner(
+            DriverMatchingService driverMatchingService,
+            DriverReservationService driverReservationService,
+            @Value("${app.dispatch.batch.candidates-per-trip:20}") int candidatesPerTrip,
+            @Value("${app.dispatch.batch.epsilon-seconds:1.0}") double epsilonSeconds) {
+        this.driverMatchingService = driverMatchingService;
+        this.driverReservationService = driverReservationService;
+        this.candidatesPerTrip = candidatesPerTrip;
+        this.epsilonSeconds = epsilonSeconds;
+    }
+
+    /**
+     * @return driver id per trip id, for the trips that could be matched
+     */
+    public Map<Long, Long> assign(List<TripDispatcher.DispatchRequest> trips) {
+        int tripCount = trips.size();
+        int[] candidateStart = new int[tripCount + 1];
+        int[] candidateDriver = new int[tripCount * candidatesPerTrip];
+        double[] candidateCost = new double[tripCount * candidatesPerTrip];
+
+        Map<Long, Integer> driverIndex = new HashMap<>();
+        List<Long> driverIds = new ArrayList<>();
+
+        List<List<DriverMatchingService.PickupCandidate>> candidatesByTrip = new ArrayList<>(tripCount);
+        Set<Long> seen = new HashSet<>();
+        for (TripDispatcher.DispatchRequest trip : trips) {
+            List<DriverMatchingService.PickupCandidate> candidates = driverMatchingService.findCandidatesByPickupTime(
+                    trip.originLatitude(), trip.originLongitude(), candidatesPerTrip);
+            candidates.forEach(candidate -> seen.add(candidate.location().getDriverId()));
+            candidatesByTrip.add(candidates);
+        }
+        Set<Long> reserved = driverReservationService.findReserved(seen);
+
+        int edges = 0;
+        double maxCost = 0;
+        for (int i = 0; i < tripCount; i++) {
+            candidateStart[i] = edges;
+            for (DriverMatchingService.PickupCandidate candidate : candidatesByTrip.get(i)) {
+                Long candidateId = candidate.location().getDriverId();
+                if (reserved.contains(candidateId)) {
+                    continue;
+                }
+                int index = driverIndex.computeIfAbsent(candidateId, id -> {
+                    driverIds.add(id);
+                    return driverIds.size() - 1;
+                });
+                candidateDriver[edges] = index;
+                candidateCost[edges] = candidate.eta().durationSeconds();
+                maxCost = Math.max(maxCost, candidateCost[edges]);
+                edges++;
+            }
+        }
+        candidateStart[tripCount] = edges;
+        // Any candidate beats leaving the trip unmatched
+        double unassignedCost = 2 * maxCost + 1;
+
+        long started = System.nanoTime();
+        int[] assignment = AuctionAssignment.solve(tripCount, driverIds.size(), candidateStart,
+                candidateDriver, candidateCost, unassignedCost, epsilonSeconds);
+
+        Map<Long, Long> result = new HashMap<>();
+        for (int i = 0; i < tripCount; i++) {
+            if (assignment[i] == AuctionAssignment.UNASSIGNED) {
+                continue;
+            }
+            Long tripId = trips.get(i).tripId();
+            Long driverId = driverIds.get(assignment[i]);
+            // Lost to another node since the reservation check; the trip is retried next window
+            if (driverReservationService.reserve(driverId, tripId)) {
+                result.put(tripId, driverId);
+            }
+        }
+        log.info("Batch assignment: {} trips, {} drivers, {} candidate edges, {} matched in {}ms",
+                tripCount, driverIds.size(), edges, result.size(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+}
@@ -2,20 +2,25 @@ package com.ridehailing.trip.service;
 
 import com.ridehailing.driver.domain.DriverLocation;
 import com.ridehailing.driver.service.DriverLocationService;
+import com.ridehailing.driver.service.DriverReservationService;
+import com.ridehailing.routing.service.EtaService;
+import com.ridehailing.routing.service.RouteEstimate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Service for matching riders with nearby available drivers.
- * In production, this would use more sophisticated algorithms:
+ * Candidates are ranked by road travel time to the pickup.
+ * In production, this would also weigh:
  * - Driver acceptance rate
  * - Driver rating
- * - Estimated time to pickup
  * - Driver preferences
  */
 @Service
@@ -24,26 +29,64 @@ import java.util.Optional;
 public class DriverMatchingService {
 
     private final DriverLocationService driverLocationService;
+    private final DriverReservationService driverReservationService;
+    private final EtaService etaService;
 
     @Value("${app.driver.matching.max-drivers-to-check:10}")
     private int maxDriversToCheck;
 
-    public Optional<Long> findNearestDriver(double latitude, double longitude) {
-        List<DriverLocation> nearbyDrivers = driverLocationService.findNearbyDrivers(
-                latitude, longitude, maxDriversToCheck
-        );
+    /**
+     * Reserve the available driver with the shortest pickup time for the trip.
+     * A driver already reserved by another trip is skipped.
+     */
+    public Optional<Long> reserveNearestDriver(Long tripId, double latitude, double longitude) {
+        List<PickupCandidate> candidates = findCandidatesByPickupTime(latitude, longitude, maxDriversToCheck);
         
-        if (nearbyDrivers.isEmpty()) {
+        if (candidates.isEmpty()) {
             log.warn("No available drivers found near ({}, {})", latitude, longitude);
             return Optional.empty();
         }
         
-        // For simplicity, return the first driver
-        // In production: sort by distance, rating, acceptance rate, etc.
-        DriverLocation selectedDriver = nearbyDrivers.get(0);
-        log.info("Matched driver {} for location ({}, {})", 
-                selectedDriver.getDriverId(), latitude, longitude);
+        // In production: also weigh rating, acceptance rate, etc.
+        for (PickupCandidate candidate : candidates) {
+            Long driverId = candidate.location().getDriverId();
+            if (driverReservationService.reserve(driverId, tripId)) {
+                log.info("Matched driver {} for location ({}, {}), pickup in {}s",
+                        driverId, latitude, longitude, candidate.eta().durationSeconds());
+                return Optional.of(driverId);
+            }
+        }
         
-        return Optional.of(selectedDriver.getDriverId());
+        log.warn("All {} drivers near ({}, {}) are reserved", candidates.size(), latitude, longitude);
+        return Optional.empty();
+    }
+
+    /**
+     * Nearby available drivers with their road ETA to the pickup, fastest first.
+     * All ETAs come from one reverse search from the pickup point.
+     */
+    public List<PickupCandidate> findCandidatesByPickupTime(double latitude, double longitude, int maxDrivers) {
+        List<DriverLocation> nearbyDrivers = driverLocationService.findNearbyDrivers(latitude, longitude, maxDrivers);
+        if (nearbyDrivers.isEmpty()) {
+            return List.of();
+        }
+
+        double[] latitudes = new double[nearbyDrivers.size()];
+        double[] longitudes = new double[nearbyDrivers.size()];
+        for (int i = 0; i < nearbyDrivers.size(); i++) {
+            latitudes[i] = nearbyDrivers.get(i).getLatitude();
+            longitudes[i] = nearbyDrivers.get(i).getLongitude();
+        }
+        RouteEstimate[] etas = etaService.estimateFromMany(latitudes, longitudes, latitude, longitude);
+
+        List<PickupCandidate> candidates = new ArrayList<>(nearbyDrivers.size());
+        for (int i = 0; i < nearbyDrivers.size(); i++) {
+            candidates.add(new PickupCandidate(nearbyDrivers.get(i), etas[i]));
+        }
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.eta().durationSeconds()));
+        return candidates;
+    }
+
+    public record PickupCandidate(DriverLocation location, RouteEstimate eta) {
     }
 }
@@ -0,0 +1,343 @@
+package com.ridehailing.trip.service;
+
+import com.ridehailing.driver.service.DriverReservationService;
+import com.ridehailing.notification.dto.TripEventDto;
+import com.ridehailing.pricing.service.ZoneDemandTracker;
+import com.ridehailing.trip.domain.Trip;
+import com.ridehailing.trip.domain.TripStatus;
+import com.ridehailing.trip.event.TripEventPublisher;
+import com.ridehailing.trip.repository.TripRepository;
+import com.ridehailing.trip.repository.TripRequestView;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatch stage between a trip request and its driver assignment.
+ *
+ * requestTrip only enqueues the trip (after its transaction commits). The assignment is
+ * then made in one of two modes ({@code app.dispatch.mode}):
+ * - greedy: a bounded worker pool matches each trip to its nearest driver as it arrives
+ * - batch: trips are collected over a short window and assigned together by {@link BatchAssigner}
+ *
+ * Assignments are written back in their own short transaction and published as
+ * trip.driver-assigned. Trips that could not be matched or enqueued are picked up again
+ * by a periodic retry sweep, which cancels requests that waited longer than
+ * {@code app.dispatch.max-wait-seconds}.
+ */
+@Component
+@Slf4j
+public class TripDispatcher {
+
+    private final DriverMatchingService driverMatchingService;
+    private final BatchAssigner batchAssigner;
+    private final DriverReservationService driverReservationService;
+    private final TripRepository tripRepository;
+    private final TripEventPublisher tripEventPublisher;
+    private final ActiveTripRegistry activeTripRegistry;
+    private final ZoneDemandTracker zoneDemandTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final boolean batchMode;
+    private final long maxWaitSeconds;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Queue<DispatchRequest> window = new ConcurrentLinkedQueue<>();
+
+    public TripDispatcher(
+            DriverMatchingService driverMatchingService,
+            BatchAssigner batchAssigner,
+            DriverReservationService driverReservationService,
+            TripRepository tripRepository,
+            TripEventPublisher tripEventPublisher,
+            ActiveTripRegistry activeTripRegistry,
+            ZoneDemandTracker zoneDemandTracker,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.dispatch.worker-threads:4}") int workerThreads,
+            @Value("${app.dispatch.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.dispatch.mode:greedy}") String mode,
+            @Value("${app.dispatch.max-wait-seconds:600}") long maxWaitSeconds) {
+        this.driverMatchingService = driverMatchingService;
+        this.batchAssigner = batchAssigner;
+        this.driverReservationService = driverReservationService;
+        this.batchMode = "batch".equalsIgnoreCase(mode);
+        this.tripRepository = tripRepository;
+        this.tripEventPublisher = tripEventPublisher;
+        this.activeTripRegistry = activeTripRegistry;
+        this.zoneDemandTracker = zoneDemandTracker;
+        this.transactionTemplate = transactionTemplate;
+        this.maxWaitSeconds = maxWaitSeconds;
+        this.workers = new ThreadPoolExecutor(
+                workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new DispatchThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queue a trip for matching once the current transaction commits,
+     * so workers never look for a trip that is not visible yet.
+     */
+    public void dispatchAfterCommit(Trip trip) {
+        DispatchRequest request = DispatchRequest.of(trip);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(request);
+                }
+            });
+        } else {
+            enqueue(request);
+        }
+    }
+
+    public int queueSize() {
+        return batchMode ? window.size() : workers.getQueue().size();
+    }
+
+    void enqueue(DispatchRequest request) {
+        if (!inFlight.add(request.tripId())) {
+            return;
+        }
+        if (batchMode) {
+            window.add(request);
+            return;
+        }
+        try {
+            workers.execute(() -> dispatch(request));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(request.tripId());
+            log.warn("Dispatch queue full, trip {} will be retried by the sweep", request.tripId());
+        }
+    }
+
+    private void dispatch(DispatchRequest request) {
+        try {
+            Optional<Long> driverId = driverMatchingService.reserveNearestDriver(
+                    request.tripId(), request.originLatitude(), request.originLongitude());
+            if (driverId.isEmpty()) {
+                return;
+            }
+
+            assign(request, driverId.get());
+        } catch (Exception e) {
+            log.error("Dispatch failed for trip {}: {}", request.tripId(), e.getMessage());
+        } finally {
+            inFlight.remove(request.tripId());
+        }
+    }
+
+    /**
+     * Assign every trip collected since the last window in one pass. A no-op in greedy mode.
+     */
+    @Scheduled(fixedDelayString = "${app.dispatch.batch.window-ms:2000}")
+    public void dispatchWindow() {
+        if (!batchMode || window.isEmpty()) {
+            return;
+        }
+        List<DispatchRequest> batch = new ArrayList<>();
+        DispatchRequest request;
+        while ((request = window.poll()) != null) {
+            batch.add(request);
+        }
+
+        try {
+            Map<Long, Long> assignments = batchAssigner.assign(batch);
+            for (DispatchRequest trip : batch) {
+                Long driverId = assignments.get(trip.tripId());
+                if (driverId != null) {
+                    assign(trip, driverId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Batch dispatch failed for {} trips: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.forEach(trip -> inFlight.remove(trip.tripId()));
+        }
+    }
+
+    /**
+     * Write one assignment in its own transaction, so a failure cannot roll back others;
+     * the driver's lease is released when the write fails.
+     */
+    private void assign(DispatchRequest request, Long driverId) {
+        Boolean assigned;
+        try {
+            assigned = transactionTemplate.execute(status -> writeAssignment(request, driverId));
+        } catch (RuntimeException e) {
+            log.error("Could not assign driver {} to trip {}: {}", driverId, request.tripId(), e.getMessage());
+            driverReservationService.release(driverId, request.tripId());
+            return;
+        }
+        if (!Boolean.TRUE.equals(assigned)) {
+            return;
+        }
+        try {
+            publishAssigned(request, driverId);
+        } catch (RuntimeException e) {
+            // The assignment stands; the driver still sees it through the active-trip endpoints
+            log.error("Could not publish assignment of trip {}: {}", request.tripId(), e.getMessage());
+        }
+    }
+
+    private boolean writeAssignment(DispatchRequest request, Long driverId) {
+        if (tripRepository.assignDriver(request.tripId(), driverId) == 0) {
+            log.info("Trip {} was no longer open for assignment", request.tripId());
+            driverReservationService.release(driverId, request.tripId());
+            return false;
+        }
+        activeTripRegistry.assigned(request.tripId(), driverId);
+        log.info("Auto-matched driver {} to trip {}", driverId, request.tripId());
+        return true;
+    }
+
+    private void publishAssigned(DispatchRequest request, Long driverId) {
+        tripEventPublisher.publishTripDriverAssigned(TripEventDto.builder()
+                .tripId(request.tripId())
+                .riderId(request.riderId())
+                .driverId(driverId)
+                .status(TripStatus.REQUESTED)
+                .originLatitude(request.originLatitude())
+                .originLongitude(request.originLongitude())
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Re-enqueue requested trips that still have no driver: nobody was nearby,
+     * the queue was full, or the node restarted before dispatching them.
+     * Requests that waited longer than the maximum are cancelled instead, and
+     * assignments the driver did not accept within the lease are withdrawn.
+     */
+    @Scheduled(fixedDelayString = "${app.dispatch.retry-interval-ms:10000}")
+    public void retryUnassigned() {
+        LocalDateTime expiresBefore = LocalDateTime.now().minusSeconds(maxWaitSeconds);
+        List<TripRequestView> assigned = new ArrayList<>();
+        for (TripRequestView trip : tripRepository.findRequestsByStatus(TripStatus.REQUESTED)) {
+            if (trip.getRequestedAt().isBefore(expiresBefore)) {
+                expire(trip);
+            } else if (trip.getDriverId() == null) {
+                enqueue(DispatchRequest.of(trip));
+            } else {
+                assigned.add(trip);
+            }
+        }
+        releaseStaleAssignments(assigned);
+    }
+
+    /**
+     * Withdraw assignments whose driver lease expired or moved to another trip, then
+     * dispatch the trip again; until then no other driver could accept it.
+     */
+    private void releaseStaleAssignments(List<TripRequestView> assigned) {
+        if (assigned.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> leaseOwners;
+        try {
+            leaseOwners = driverReservationService.findLeaseOwners(
+                    assigned.stream().map(TripRequestView::getDriverId).toList());
+        } catch (Exception e) {
+            log.warn("Could not check driver leases of {} assigned trips: {}", assigned.size(), e.getMessage());
+            return;
+        }
+        for (TripRequestView trip : assigned) {
+            if (trip.getId().equals(leaseOwners.get(trip.getDriverId()))) {
+                continue;
+            }
+            try {
+                Integer released = transactionTemplate.execute(status -> {
+                    int updated = tripRepository.unassignDriver(trip.getId(), trip.getDriverId());
+                    if (updated > 0) {
+                        activeTripRegistry.assigned(trip.getId(), null);
+                    }
+                    return updated;
+                });
+                if (released != null && released > 0) {
+                    log.info("Driver {} did not accept trip {} in time, dispatching it again",
+                            trip.getDriverId(), trip.getId());
+                    enqueue(DispatchRequest.of(trip));
+                }
+            } catch (Exception e) {
+                log.error("Could not withdraw assignment of trip {}: {}", trip.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void expire(TripRequestView trip) {
+        try {
+            Integer expired = transactionTemplate.execute(status -> {
+                int updated = tripRepository.expireRequest(trip.getId(), LocalDateTime.now());
+                if (updated > 0) {
+                    activeTripRegistry.reload(trip.getId());
+                }
+                return updated;
+            });
+            if (expired == null || expired == 0) {
+                return;
+            }
+            if (trip.getDriverId() != null) {
+                driverReservationService.release(trip.getDriverId(), trip.getId());
+            }
+            zoneDemandTracker.recordRequestClosed(trip.getId());
+            log.info("Trip {} cancelled after waiting {}s for a driver", trip.getId(), maxWaitSeconds);
+        } catch (Exception e) {
+            log.error("Could not expire trip {}: {}", trip.getId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    record DispatchRequest(Long tripId, Long riderId, double originLatitude, double originLongitude) {
+
+        static DispatchRequest of(Trip trip) {
+            return new DispatchRequest(trip.getId(), trip.getRiderId(),
+                    trip.getOriginLatitude(), trip.getOriginLongitude());
+        }
+
+        static DispatchRequest of(TripRequestView trip) {
+            return new DispatchRequest(trip.getId(), trip.getRiderId(),
+                    trip.getOriginLatitude(), trip.getOriginLongitude());
+        }
+    }
+
+    private static final class DispatchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.ridehailing.trip.service;
+
+import com.ridehailing.common.util.DistanceCalculator;
+import com.ridehailing.trip.trace.TracePoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running distance of in-progress trips, accumulated from the driver's location pings.
+ *
+ * A trip is registered when it starts, read when it completes and discarded once the
+ * completion is written, so the final fare needs no trace replay. Each ping is compared with the last accepted one:
+ * - out-of-order or duplicate timestamps are dropped;
+ * - moves shorter than the jitter threshold are ignored (GPS noise while standing still);
+ * - moves implying more than the maximum speed are rejected as outliers. If the unchecked
+ *   first fix was the outlier, two consistent fixes after it replace it as the start.
+ *
+ * Ping times are server receive times (batched fixes keep their spacing, anchored to the
+ * receive time), the same clock as the trip's start and completion. A reading only
+ * counts as {@link #covers complete} when pings were seen from start to completion
+ * without a longer silence than {@code max-gap-seconds}.
+ *
+ * State is per node, and behind a load balancer a node may see only some of a trip's pings,
+ * or none. The trip trace collects the pings of every node, so completion also {@link #replay}s
+ * it through the same filter and bills whichever reading covers the trip with more points.
+ */
+@Component
+@Slf4j
+public class TripOdometer {
+
+    private final Map<Long, Odometer> byDriverId = new ConcurrentHashMap<>();
+    private final double jitterKm;
+    private final double maxSpeedKmh;
+    private final long maxGapMillis;
+
+    public TripOdometer(
+            @Value("${app.trip.odometer.jitter-meters:10}") double jitterMeters,
+            @Value("${app.trip.odometer.max-speed-kmh:160}") double maxSpeedKmh,
+            @Value("${app.trip.odometer.max-gap-seconds:120}") long maxGapSeconds) {
+        this.jitterKm = jitterMeters / 1000.0;
+        this.maxSpeedKmh = maxSpeedKmh;
+        this.maxGapMillis = maxGapSeconds * 1000;
+    }
+
+    public void start(Long driverId, Long tripId) {
+        byDriverId.put(driverId, new Odometer(tripId));
+    }
+
+    /**
+     * Feed a location ping; ignored unless the driver has a trip in progress.
+     *
+     * @param receivedAt server time of the ping
+     */
+    public void record(Long driverId, double latitude, double longitude, LocalDateTime receivedAt) {
+        Odometer odometer = byDriverId.get(driverId);
+        if (odometer != null) {
+            odometer.record(latitude, longitude, toMillis(receivedAt), jitterKm, maxSpeedKmh);
+        }
+    }
+
+    /**
+     * Whether the reading saw the whole trip: its first and last pings are within the
+     * maximum gap of the start and completion, and pings never paused for longer.
+     */
+    public boolean covers(Reading reading, LocalDateTime startedAt, LocalDateTime completedAt) {
+        return reading.firstPingMillis() - toMillis(startedAt) <= maxGapMillis
+                && toMillis(completedAt) - reading.lastPingMillis() <= maxGapMillis
+                && reading.maxGapMillis() <= maxGapMillis;
+    }
+
+    /**
+     * What was measured so far; the trip stays tracked until it is discarded, so a
+     * completion that fails to commit can read it again.
+     */
+    public Optional<Reading> read(Long driverId, Long tripId) {
+        Odometer odometer = byDriverId.get(driverId);
+        if (odometer == null || !odometer.tripId.equals(tripId)) {
+            return Optional.empty();
+        }
+        Reading reading = odometer.reading();
+        if (reading.rejectedPoints() > 0) {
+            log.debug("Trip {} odometer rejected {} outlier points", tripId, reading.rejectedPoints());
+        }
+        return Optional.of(reading);
+    }
+
+    /**
+     * Reading recomputed from a recorded trace in time order, with the same filter as live pings.
+     */
+    public Optional<Reading> replay(List<TracePoint> points) {
+        if (points.isEmpty()) {
+            return Optional.empty();
+        }
+        Odometer odometer = new Odometer(null);
+        for (TracePoint point : points) {
+            odometer.record(point.latitude(), point.longitude(), point.recordedAtMillis(), jitterKm, maxSpeedKmh);
+        }
+        return Optional.of(odometer.reading());
+    }
+
+    public void discard(Long driverId, Long tripId) {
+        byDriverId.computeIfPresent(driverId, (id, odometer) -> odometer.tripId.equals(tripId) ? null : odometer);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @param distanceKm      filtered distance between the first and last accepted ping
+     * @param elapsedSeconds  time between the first and last accepted ping
+     * @param acceptedPoints  pings that moved the odometer, plus the first one
+     * @param firstPingMillis first accepted ping
+     * @param lastPingMillis  last ping that was not rejected, including ones inside the jitter threshold
+     * @param maxGapMillis    longest silence between such pings
+     */
+    public record Reading(double distanceKm, long elapsedSeconds, int acceptedPoints, int rejectedPoints,
+                          long firstPingMillis, long lastPingMillis, long maxGapMillis) {
+    }
+
+    private static final class Odometer {
+
+        private final Long tripId;
+        private double lastLatitude;
+        private double lastLongitude;
+        private long firstMillis;
+        private long lastMillis;
+        private long lastSeenMillis;
+        private long maxGapMillis;
+        private double distanceKm;
+        private int acceptedPoints;
+        private int rejectedPoints;
+        // Last fix rejected as too fast, kept to detect an outlier first fix
+        private boolean hasCandidate;
+        private double candidateLatitude;
+        private double candidateLongitude;
+        private long candidateMillis;
+
+        Odometer(Long tripId) {
+            this.tripId = tripId;
+        }
+
+        synchronized void record(double latitude, double longitude, long millis,
+                                 double jitterKm, double maxSpeedKmh) {
+            if (acceptedPoints == 0) {
+                accept(latitude, longitude, millis);
+                firstMillis = millis;
+                lastSeenMillis = millis;
+                return;
+            }
+            if (millis <= lastSeenMillis) {
+                rejectedPoints++;
+                return;
+            }
+            double stepKm = DistanceCalculator.calculateDistance(lastLatitude, lastLongitude, latitude, longitude);
+            if (stepKm < jitterKm) {
+                seen(millis);
+                return;
+            }
+            if (speedKmh(stepKm, lastMillis, millis) > maxSpeedKmh) {
+                if (acceptedPoints == 1 && hasCandidate && speedKmh(DistanceCalculator.calculateDistance(
+                        candidateLatitude, candidateLongitude, latitude, longitude), candidateMillis, millis) <= maxSpeedKmh) {
+                    // The unchecked first fix was the outlier: start again from the candidate
+                    restartFromCandidate();
+                    record(latitude, longitude, millis, jitterKm, maxSpeedKmh);
+                    return;
+                }
+                rejectedPoints++;
+                hasCandidate = true;
+                candidateLatitude = latitude;
+                candidateLongitude = longitude;
+                candidateMillis = millis;
+                return;
+            }
+            hasCandidate = false;
+            distanceKm += stepKm;
+            seen(millis);
+            accept(latitude, longitude, millis);
+        }
+
+        // The candidate takes the first fix's place: still one accepted and one rejected point
+        private void restartFromCandidate() {
+            hasCandidate = false;
+            lastLatitude = candidateLatitude;
+            lastLongitude = candidateLongitude;
+            lastMillis = candidateMillis;
+            firstMillis = candidateMillis;
+            lastSeenMillis = candidateMillis;
+            maxGapMillis = 0;
+        }
+
+        private void seen(long millis) {
+            maxGapMillis = Math.max(maxGapMillis, millis - lastSeenMillis);
+            lastSeenMillis = millis;
+        }
+
+        private void accept(double latitude, double longitude, long millis) {
+            lastLatitude = latitude;
+            lastLongitude = longitude;
+            lastMillis = millis;
+            acceptedPoints++;
+        }
+
+        private static double speedKmh(double stepKm, long fromMillis, long toMillis) {
+            return stepKm / ((toMillis - fromMillis) / 3_600_000.0);
+        }
+
+        synchronized Reading reading() {
+            return new Reading(distanceKm, (lastMillis - firstMillis) / 1000, acceptedPoints, rejectedPoints,
+                    firstMillis, lastSeenMillis, maxGapMillis);
+        }
+    }
+}
@@ -1,22 +1,27 @@
 package com.ridehailing.trip.service;
 
+import com.ridehailing.auth.domain.UserRole;
 import com.ridehailing.common.exception.BusinessException;
 import com.ridehailing.common.exception.ResourceNotFoundException;
 import com.ridehailing.common.security.SecurityUtils;
-import com.ridehailing.common.util.DistanceCalculator;
-import com.ridehailing.driver.domain.Driver;
 import com.ridehailing.driver.domain.DriverStatus;
 import com.ridehailing.driver.repository.DriverRepository;
+import com.ridehailing.driver.service.DriverReservationService;
 import com.ridehailing.driver.service.DriverService;
+import com.ridehailing.driver.service.DriverStatusCache;
 import com.ridehailing.notification.dto.TripEventDto;
 import com.ridehailing.pricing.dto.PriceEstimateRequest;
 import com.ridehailing.pricing.dto.PriceEstimateResponse;
+import com.ridehailing.pricing.service.PriceQuote;
 import com.ridehailing.pricing.service.PricingService;
-import com.ridehailing.rider.domain.Rider;
+import com.ridehailing.pricing.service.QuoteService;
+import com.ridehailing.pricing.service.ZoneDemandTracker;
 import com.ridehailing.rider.service.RiderService;
+import com.ridehailing.routing.service.EtaService;
 import com.ridehailing.trip.domain.PaymentStatus;
 import com.ridehailing.trip.domain.Trip;
 import com.ridehailing.trip.domain.TripStatus;
+import com.ridehailing.trip.dto.TracePointDto;
 import com.ridehailing.trip.dto.TripRequestDto;
 import com.ridehailing.trip.dto.TripResponseDto;
 import com.ridehailing.trip.event.TripEventPublisher;
@@ -28,9 +33,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Core service for managing trip lifecycle:
@@ -46,96 +57,141 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TripService {
 
+    private static final int MIN_ODOMETER_POINTS = 2;
+
     private final TripRepository tripRepository;
     private final DriverRepository driverRepository;
     private final RiderService riderService;
     private final DriverService driverService;
     private final PricingService pricingService;
-    private final DriverMatchingService driverMatchingService;
+    private final QuoteService quoteService;
+    private final TripDispatcher tripDispatcher;
     private final TripEventPublisher tripEventPublisher;
+    private final DriverStatusCache driverStatusCache;
+    private final DriverReservationService driverReservationService;
+    private final ZoneDemandTracker zoneDemandTracker;
+    private final EtaService etaService;
+    private final TripOdometer tripOdometer;
+    private final TripTraceService tripTraceService;
+    private final ActiveTripRegistry activeTripRegistry;
+    private final TripStateWriter tripStateWriter;
 
     @Transactional
     public TripResponseDto requestTrip(TripRequestDto request) {
-        Rider rider = riderService.getCurrentRider();
-        
-        // Calculate distance
-        double distanceKm = DistanceCalculator.calculateDistance(
-                request.getOriginLatitude(),
-                request.getOriginLongitude(),
-                request.getDestinationLatitude(),
-                request.getDestinationLongitude()
-        );
-        
-        // Calculate price estimate
-        PriceEstimateRequest priceRequest = PriceEstimateRequest.builder()
-                .originLatitude(request.getOriginLatitude())
-                .originLongitude(request.getOriginLongitude())
-                .destinationLatitude(request.getDestinationLatitude())
-                .destinationLongitude(request.getDestinationLongitude())
-                .distanceKm(distanceKm)
-                .build();
-        
-        PriceEstimateResponse priceEstimate = pricingService.calculatePrice(priceRequest);
+        Long riderId = riderService.getCurrentRiderId();
+        
+        BigDecimal estimatedFare;
+        BigDecimal distanceKm;
+        BigDecimal surgeMultiplier;
+        
+        if (request.getQuoteId() != null) {
+            // Redeem the locked quote instead of recomputing distance and surge
+            PriceQuote quote = quoteService.redeem(
+                    request.getQuoteId(),
+                    SecurityUtils.getCurrentUserId(),
+                    request.getOriginLatitude(),
+                    request.getOriginLongitude(),
+                    request.getDestinationLatitude(),
+                    request.getDestinationLongitude()
+            );
+            estimatedFare = quote.estimatedFare();
+            distanceKm = quote.distanceKm();
+            surgeMultiplier = quote.surgeMultiplier();
+        } else {
+            // Calculate road distance
+            double distance = etaService.estimate(
+                    request.getOriginLatitude(),
+                    request.getOriginLongitude(),
+                    request.getDestinationLatitude(),
+                    request.getDestinationLongitude()
+            ).distanceKm();
+            
+            // Calculate price estimate
+            PriceEstimateRequest priceRequest = PriceEstimateRequest.builder()
+                    .originLatitude(request.getOriginLatitude())
+                    .originLongitude(request.getOriginLongitude())
+                    .destinationLatitude(request.getDestinationLatitude())
+                    .destinationLongitude(request.getDestinationLongitude())
+                    .distanceKm(distance)
+                    .build();
+            
+            PriceEstimateResponse priceEstimate = pricingService.calculatePrice(priceRequest);
+            estimatedFare = priceEstimate.getEstimatedFare();
+            distanceKm = priceEstimate.getDistanceKm();
+            surgeMultiplier = priceEstimate.getSurgeMultiplier();
+        }
         
         // Create trip
         Trip trip = Trip.builder()
-                .riderId(rider.getId())
+                .riderId(riderId)
                 .status(TripStatus.REQUESTED)
                 .originLatitude(request.getOriginLatitude())
                 .originLongitude(request.getOriginLongitude())
                 .destinationLatitude(request.getDestinationLatitude())
                 .destinationLongitude(request.getDestinationLongitude())
-                .estimatedFare(priceEstimate.getEstimatedFare())
-                .distanceKm(priceEstimate.getDistanceKm())
-                .surgeMultiplier(priceEstimate.getSurgeMultiplier())
+                .estimatedFare(estimatedFare)
+                .distanceKm(distanceKm)
+                .surgeMultiplier(surgeMultiplier)
                 .paymentStatus(PaymentStatus.PENDING)
                 .build();
         
         Trip savedTrip = tripRepository.save(trip);
-        log.info("Trip requested by rider: {}, trip id: {}", rider.getId(), savedTrip.getId());
+        activeTripRegistry.update(savedTrip);
+        log.info("Trip requested by rider: {}, trip id: {}", riderId, savedTrip.getId());
+        zoneDemandTracker.recordRequestOpened(
+                savedTrip.getId(), request.getOriginLatitude(), request.getOriginLongitude());
         
         // Publish event
         tripEventPublisher.publishTripRequested(buildTripEventDto(savedTrip));
         
-        // Try to match a driver
-        driverMatchingService.findNearestDriver(
-                request.getOriginLatitude(),
-                request.getOriginLongitude()
-        ).ifPresent(driverId -> {
-            savedTrip.setDriverId(driverId);
-            tripRepository.save(savedTrip);
-            log.info("Auto-matched driver {} to trip {}", driverId, savedTrip.getId());
-        });
+        // Driver matching runs in the dispatch stage once this transaction commits;
+        // the rider sees the assignment via /api/trips/rider/active or trip.driver-assigned
+        tripDispatcher.dispatchAfterCommit(savedTrip);
         
         return mapToResponseDto(savedTrip);
     }
 
-    @Transactional
     public TripResponseDto acceptTrip(Long tripId) {
-        Driver driver = driverService.getCurrentDriver();
+        DriverStatusCache.CachedDriver driver = driverService.getCurrentDriverStatus();
         
-        Trip trip = tripRepository.findById(tripId)
-                .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
+        Trip trip = loadTripForUpdate(tripId);
         
         if (trip.getStatus() != TripStatus.REQUESTED) {
             throw new BusinessException("Trip cannot be accepted in current status: " + trip.getStatus());
         }
         
-        if (driver.getStatus() != DriverStatus.ONLINE) {
+        if (driver.status() != DriverStatus.ONLINE) {
             throw new BusinessException("Driver must be online to accept trips");
         }
         
-        // Update trip
-        trip.setDriverId(driver.getId());
+        if (trip.getDriverId() != null && !trip.getDriverId().equals(driver.driverId())) {
+            throw new BusinessException("Trip is assigned to another driver");
+        }
+        
+        // Holds the driver for this trip; concurrent accepts of the same trip are
+        // caught by the version check when the transition is written
+        if (!driverReservationService.reserve(driver.driverId(), tripId)) {
+            throw new BusinessException("Driver is reserved for another trip");
+        }
+        
+        // Update trip and driver status
+        long version = trip.getVersion();
+        trip.setDriverId(driver.driverId());
         trip.setStatus(TripStatus.ACCEPTED);
         trip.setAcceptedAt(LocalDateTime.now());
-        tripRepository.save(trip);
-        
-        // Update driver status
-        driver.setStatus(DriverStatus.BUSY);
-        driverRepository.save(driver);
+        try {
+            tripStateWriter.write(trip, version, new TripStateWriter.DriverWrite(
+                    driver.driverId(), DriverStatus.ONLINE, DriverStatus.BUSY, 0, true));
+        } catch (RuntimeException e) {
+            driverReservationService.release(driver.driverId(), tripId);
+            throw e;
+        }
+        activeTripRegistry.update(trip);
+        driverStatusCache.update(driver.driverId(), driver.userId(), DriverStatus.BUSY);
+        zoneDemandTracker.recordRequestClosed(tripId);
+        zoneDemandTracker.recordDriverUnavailable(driver.driverId());
         
-        log.info("Trip {} accepted by driver {}", tripId, driver.getId());
+        log.info("Trip {} accepted by driver {}", tripId, driver.driverId());
         
         // Publish event
         tripEventPublisher.publishTripAccepted(buildTripEventDto(trip));
@@ -143,14 +199,12 @@ public class TripService {
         return mapToResponseDto(trip);
     }
 
-    @Transactional
     public TripResponseDto startTrip(Long tripId) {
-        Driver driver = driverService.getCurrentDriver();
+        Long driverId = driverService.getCurrentDriverId();
         
-        Trip trip = tripRepository.findById(tripId)
-                .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
+        Trip trip = loadTripForUpdate(tripId);
         
-        if (!trip.getDriverId().equals(driver.getId())) {
+        if (!driverId.equals(trip.getDriverId())) {
             throw new BusinessException("Driver not assigned to this trip");
         }
         
@@ -158,11 +212,15 @@ public class TripService {
             throw new BusinessException("Trip must be accepted before starting");
         }
         
+        long version = trip.getVersion();
         trip.setStatus(TripStatus.IN_PROGRESS);
         trip.setStartedAt(LocalDateTime.now());
-        tripRepository.save(trip);
+        tripStateWriter.write(trip, version, null);
+        activeTripRegistry.update(trip);
+        tripOdometer.start(driverId, tripId);
+        tripTraceService.start(driverId, tripId);
         
-        log.info("Trip {} started by driver {}", tripId, driver.getId());
+        log.info("Trip {} started by driver {}", tripId, driverId);
         
         // Publish event
         tripEventPublisher.publishTripStarted(buildTripEventDto(trip));
@@ -170,14 +228,12 @@ public class TripService {
         return mapToResponseDto(trip);
     }
 
-    @Transactional
     public TripResponseDto completeTrip(Long tripId) {
-        Driver driver = driverService.getCurrentDriver();
+        Long driverId = driverService.getCurrentDriverId();
         
-        Trip trip = tripRepository.findById(tripId)
-                .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
+        Trip trip = loadTripForUpdate(tripId);
         
-        if (!trip.getDriverId().equals(driver.getId())) {
+        if (!driverId.equals(trip.getDriverId())) {
             throw new BusinessException("Driver not assigned to this trip");
         }
         
@@ -185,19 +241,22 @@ public class TripService {
             throw new BusinessException("Trip must be in progress to complete");
         }
         
-        // Complete trip
+        // Complete trip; the driver goes back online with one more trip
+        long version = trip.getVersion();
         trip.setStatus(TripStatus.COMPLETED);
         trip.setCompletedAt(LocalDateTime.now());
-        trip.setFinalFare(trip.getEstimatedFare()); // In production, recalculate based on actual distance/time
+        trip.setFinalFare(calculateFinalFare(trip, tripOdometer.read(driverId, tripId)));
         trip.setPaymentStatus(PaymentStatus.COMPLETED);
-        tripRepository.save(trip);
-        
-        // Update driver stats
-        driver.setStatus(DriverStatus.ONLINE);
-        driver.setTotalTrips(driver.getTotalTrips() + 1);
-        driverRepository.save(driver);
+        tripStateWriter.write(trip, version, new TripStateWriter.DriverWrite(
+                driverId, null, DriverStatus.ONLINE, 1, true));
+        // Only now, so a retry after a failed write still bills the measured distance
+        tripOdometer.discard(driverId, tripId);
+        activeTripRegistry.update(trip);
+        tripTraceService.finish(driverId, tripId);
+        driverStatusCache.update(driverId, SecurityUtils.getCurrentUserId(), DriverStatus.ONLINE);
+        driverReservationService.release(driverId, tripId);
         
-        log.info("Trip {} completed by driver {}", tripId, driver.getId());
+        log.info("Trip {} completed by driver {}", tripId, driverId);
         
         // Publish event
         tripEventPublisher.publishTripCompleted(buildTripEventDto(trip));
@@ -205,20 +264,11 @@ public class TripService {
         return mapToResponseDto(trip);
     }
 
-    @Transactional
     public TripResponseDto cancelTrip(Long tripId, String reason) {
-        Long userId = SecurityUtils.getCurrentUserId();
-        
-        Trip trip = tripRepository.findById(tripId)
-                .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
+        Trip trip = loadTripForUpdate(tripId);
         
         // Verify user is either rider or driver
-        Rider rider = riderService.getCurrentRider();
-        boolean isRider = trip.getRiderId().equals(rider.getId());
-        boolean isDriver = trip.getDriverId() != null && 
-                driverRepository.findByUserId(userId).map(d -> d.getId().equals(trip.getDriverId())).orElse(false);
-        
-        if (!isRider && !isDriver) {
+        if (!isParticipant(trip)) {
             throw new BusinessException("Not authorized to cancel this trip");
         }
         
@@ -226,75 +276,142 @@ public class TripService {
             throw new BusinessException("Cannot cancel trip in current status: " + trip.getStatus());
         }
         
+        long version = trip.getVersion();
         trip.setStatus(TripStatus.CANCELLED);
         trip.setCancelledAt(LocalDateTime.now());
         
-        // If driver was assigned, set them back to online
-        if (trip.getDriverId() != null) {
-            driverRepository.findById(trip.getDriverId()).ifPresent(driver -> {
-                if (driver.getStatus() == DriverStatus.BUSY) {
-                    driver.setStatus(DriverStatus.ONLINE);
-                    driverRepository.save(driver);
-                }
-            });
+        // If driver was assigned and busy, set them back to online
+        Long driverId = trip.getDriverId();
+        TripStateWriter.DriverWrite driverWrite = driverId != null
+                ? new TripStateWriter.DriverWrite(driverId, DriverStatus.BUSY, DriverStatus.ONLINE, 0, false)
+                : null;
+        boolean driverReleased = tripStateWriter.write(trip, version, driverWrite);
+        activeTripRegistry.update(trip);
+        
+        if (driverId != null) {
+            driverReservationService.release(driverId, tripId);
+            tripOdometer.discard(driverId, tripId);
+            tripTraceService.finish(driverId, tripId);
+            if (driverReleased) {
+                driverRepository.findById(driverId).ifPresent(driverStatusCache::update);
+            }
         }
         
-        tripRepository.save(trip);
+        zoneDemandTracker.recordRequestClosed(tripId);
         log.info("Trip {} cancelled. Reason: {}", tripId, reason);
         
         return mapToResponseDto(trip);
     }
 
-    public TripResponseDto getTripById(Long tripId) {
-        Trip trip = tripRepository.findById(tripId)
+    /**
+     * Copy of the trip to apply a transition to: active trips come from the registry,
+     * others from the repository. A stale copy fails the version check on write.
+     */
+    private Trip loadTripForUpdate(Long tripId) {
+        return activeTripRegistry.findActiveTrip(tripId)
+                .or(() -> tripRepository.findById(tripId))
+                .map(ActiveTripRegistry::snapshot)
+                .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
+    }
+
+    public TripResponseDto getTripById(Long tripId, boolean includeTrace) {
+        Trip trip = activeTripRegistry.findActiveTrip(tripId)
+                .or(() -> tripRepository.findById(tripId))
                 .orElseThrow(() -> new ResourceNotFoundException("Trip not found"));
         
         // Verify access
-        Long userId = SecurityUtils.getCurrentUserId();
-        Rider rider = riderService.getCurrentRider();
-        boolean isRider = trip.getRiderId().equals(rider.getId());
-        boolean isDriver = trip.getDriverId() != null && 
-                driverRepository.findByUserId(userId).map(d -> d.getId().equals(trip.getDriverId())).orElse(false);
-        
-        if (!isRider && !isDriver) {
+        if (!isParticipant(trip)) {
             throw new BusinessException("Not authorized to view this trip");
         }
         
-        return mapToResponseDto(trip);
+        TripResponseDto response = mapToResponseDto(trip);
+        if (includeTrace) {
+            response.setTrace(tripTraceService.getTrace(tripId, trip.getDriverId()).stream()
+                    .map(point -> TracePointDto.builder()
+                            .recordedAt(TripTraceService.toLocalDateTime(point.recordedAtMillis()))
+                            .latitude(point.latitude())
+                            .longitude(point.longitude())
+                            .build())
+                    .collect(Collectors.toList()));
+        }
+        return response;
     }
 
     public List<TripResponseDto> getRiderTripHistory(Pageable pageable) {
-        Rider rider = riderService.getCurrentRider();
-        Page<Trip> trips = tripRepository.findByRiderIdOrderByRequestedAtDesc(rider.getId(), pageable);
+        Long riderId = riderService.getCurrentRiderId();
+        Page<Trip> trips = tripRepository.findByRiderIdOrderByRequestedAtDesc(riderId, pageable);
         return trips.stream()
                 .map(this::mapToResponseDto)
                 .collect(Collectors.toList());
     }
 
     public List<TripResponseDto> getDriverTripHistory(Pageable pageable) {
-        Driver driver = driverService.getCurrentDriver();
-        Page<Trip> trips = tripRepository.findByDriverIdOrderByRequestedAtDesc(driver.getId(), pageable);
+        Long driverId = driverService.getCurrentDriverId();
+        Page<Trip> trips = tripRepository.findByDriverIdOrderByRequestedAtDesc(driverId, pageable);
         return trips.stream()
                 .map(this::mapToResponseDto)
                 .collect(Collectors.toList());
     }
 
     public TripResponseDto getCurrentActiveTrip() {
-        Rider rider = riderService.getCurrentRider();
+        Long riderId = riderService.getCurrentRiderId();
         
-        return tripRepository.findActiveTrip(rider.getId())
+        return activeTripRegistry.findActiveRiderTrip(riderId)
                 .map(this::mapToResponseDto)
                 .orElse(null);
     }
 
     public TripResponseDto getDriverActiveTrip() {
-        Driver driver = driverService.getCurrentDriver();
+        Long driverId = driverService.getCurrentDriverId();
         
-        return tripRepository.findActiveDriverTrip(driver.getId())
+        return activeTripRegistry.findActiveDriverTrip(driverId)
                 .map(this::mapToResponseDto)
                 .orElse(null);
     }
 
+    /**
+     * Whether the current user is the trip's rider or its assigned driver. The profile id
+     * comes from the token, so riders and drivers are checked without a lookup.
+     */
+    private boolean isParticipant(Trip trip) {
+        UserRole role = SecurityUtils.getCurrentUserRole();
+        if (role == UserRole.RIDER) {
+            return trip.getRiderId().equals(riderService.getCurrentRiderId());
+        }
+        if (role == UserRole.DRIVER) {
+            return trip.getDriverId() != null && trip.getDriverId().equals(driverService.getCurrentDriverId());
+        }
+        return false;
+    }
+
+    /**
+     * Final fare from the measured distance: this node's odometer reading or the trip trace
+     * replayed, whichever covers the whole trip with more points. The estimate stands when
+     * neither does, since a partial reading would underbill.
+     * On success distance_km is updated to the measured distance the fare was billed on.
+     */
+    private BigDecimal calculateFinalFare(Trip trip, Optional<TripOdometer.Reading> localReading) {
+        // Pings may have reached other nodes; the trace holds all of them
+        Optional<TripOdometer.Reading> replayed =
+                tripOdometer.replay(tripTraceService.getTrace(trip.getId(), trip.getDriverId()));
+        Optional<TripOdometer.Reading> reading = Stream.of(localReading, replayed)
+                .flatMap(Optional::stream)
+                .filter(candidate -> candidate.acceptedPoints() >= MIN_ODOMETER_POINTS
+                        && tripOdometer.covers(candidate, trip.getStartedAt(), trip.getCompletedAt()))
+                .max(Comparator.comparingInt(TripOdometer.Reading::acceptedPoints));
+        if (reading.isEmpty()) {
+            log.info("Trip {} has no odometer reading covering the whole trip, charging the estimate", trip.getId());
+            return trip.getEstimatedFare();
+        }
+        double distanceKm = reading.get().distanceKm();
+        long durationSeconds = Duration.between(trip.getStartedAt(), trip.getCompletedAt()).getSeconds();
+        BigDecimal fare = pricingService.calculateFinalFare(distanceKm, durationSeconds, trip.getSurgeMultiplier());
+        trip.setDistanceKm(BigDecimal.valueOf(distanceKm).setScale(2, RoundingMode.HALF_UP));
+        log.info("Trip {} measured {}km in {}s, fare {} (estimate {})",
+                trip.getId(), String.format("%.2f", distanceKm), durationSeconds, fare, trip.getEstimatedFare());
+        return fare;
+    }
+
     private TripResponseDto mapToResponseDto(Trip trip) {
         return TripResponseDto.builder()
                 .id(trip.getId())
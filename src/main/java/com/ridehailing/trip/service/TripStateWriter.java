@@ -0,0 +1,332 @@
+package com.ridehailing.trip.service;
+
+import com.ridehailing.driver.domain.DriverStatus;
+import com.ridehailing.trip.domain.Trip;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for trip lifecycle transitions.
+ *
+ * Callers hand over the new trip state (and the matching driver change) and wait; a single
+ * writer thread collects the transitions queued meanwhile, up to {@code max-batch-size} or
+ * {@code linger-ms}, and writes them as two JDBC batches in one transaction. A transition is
+ * acknowledged only after its batch commits, so nothing is lost if the node dies.
+ *
+ * Updates are guarded like the JPA version check: the trip row must still have the version
+ * the caller read, and a required driver change must find the driver in the expected status.
+ * If any transition in a batch conflicts, the batch is rolled back and its transitions are
+ * retried one transaction each, so only the conflicting ones fail.
+ *
+ * Callers wait at most {@code timeout-ms}, which also bounds each transaction. A transition
+ * that times out before the writer picked it up is never written; one already being written
+ * may still commit. If the writer thread dies, the next caller starts a new one.
+ */
+@Component
+@Slf4j
+public class TripStateWriter {
+
+    private static final String UPDATE_TRIP =
+            "UPDATE trips SET driver_id = ?, status = ?, final_fare = ?, distance_km = ?, payment_status = ?, " +
+            "accepted_at = ?, started_at = ?, completed_at = ?, cancelled_at = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+    private static final String UPDATE_DRIVER =
+            "UPDATE drivers SET status = ?, total_trips = total_trips + ?, version = version + 1 " +
+            "WHERE id = ? AND status = COALESCE(CAST(? AS VARCHAR(20)), status)";
+    // How often a waiting caller checks that the writer thread is still alive
+    private static final long WAIT_SLICE_MILLIS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final long timeoutMillis;
+    private final BlockingQueue<Pending> queue;
+    private volatile Thread writer;
+    private volatile boolean running = true;
+
+    public TripStateWriter(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.trip.group-commit.max-batch-size:200}") int maxBatchSize,
+            @Value("${app.trip.group-commit.linger-ms:2}") long lingerMs,
+            @Value("${app.trip.group-commit.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.trip.group-commit.timeout-ms:5000}") long timeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.writer = startWriter();
+    }
+
+    /**
+     * Persist the trip's new state, moving its version from {@code expectedVersion} to the next,
+     * and the driver change if there is one. Blocks until the change is committed; on success
+     * the trip carries its new version.
+     *
+     * @return whether the driver change was applied (always true for required ones)
+     * @throws OptimisticLockingFailureException if the trip changed since it was read, or a
+     *                                           required driver change found another status
+     */
+    public boolean write(Trip trip, long expectedVersion, DriverWrite driverWrite) {
+        Pending pending = new Pending(trip, expectedVersion, driverWrite);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        ensureWriterRunning();
+        boolean driverApplied;
+        try {
+            if (!queue.offer(pending, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new QueryTimeoutException("Trip state queue is full, trip " + trip.getId() + " was not written");
+            }
+            driverApplied = await(pending, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.claimed.set(true);
+            throw new IllegalStateException("Interrupted while writing trip " + trip.getId(), e);
+        }
+        trip.setVersion(expectedVersion + 1);
+        return driverApplied;
+    }
+
+    private boolean await(Pending pending, long deadline) throws InterruptedException {
+        while (true) {
+            try {
+                return pending.result.get(WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                if (System.nanoTime() - deadline < 0) {
+                    ensureWriterRunning();
+                    continue;
+                }
+                if (pending.claimed.compareAndSet(false, true)) {
+                    throw new QueryTimeoutException("Trip " + pending.trip.getId()
+                            + " was not written within " + timeoutMillis + " ms");
+                }
+                throw new QueryTimeoutException("Trip " + pending.trip.getId()
+                        + " was not confirmed within " + timeoutMillis + " ms; it may still be written");
+            }
+        }
+    }
+
+    private synchronized void ensureWriterRunning() {
+        if (running && !writer.isAlive()) {
+            log.error("Trip state writer thread died, starting a new one");
+            writer = startWriter();
+        }
+    }
+
+    private Thread startWriter() {
+        Thread thread = new Thread(this::run, "trip-writer");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                // Skip transitions whose caller already gave up
+                batch.removeIf(pending -> !pending.claimed.compareAndSet(false, true));
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Trip state writer failed: {}", e.getMessage(), e);
+            } catch (Error e) {
+                log.error("Trip state writer thread died: {}", e.getMessage(), e);
+                throw e;
+            } finally {
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new IllegalStateException("Trip state writer stopped")));
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        boolean[] driverApplied = new boolean[batch.size()];
+        Boolean clean;
+        try {
+            clean = transactionTemplate.execute(status -> {
+                if (writeAll(batch, driverApplied)) {
+                    return true;
+                }
+                status.setRollbackOnly();
+                return false;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Trip state batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            clean = false;
+        }
+        if (Boolean.TRUE.equals(clean)) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(driverApplied[i]);
+            }
+            log.debug("Committed {} trip transitions", batch.size());
+            return;
+        }
+        batch.forEach(this::commitAlone);
+    }
+
+    private void commitAlone(Pending pending) {
+        boolean[] driverApplied = new boolean[1];
+        try {
+            Boolean written = transactionTemplate.execute(status -> {
+                if (writeAll(List.of(pending), driverApplied)) {
+                    return true;
+                }
+                status.setRollbackOnly();
+                return false;
+            });
+            if (Boolean.TRUE.equals(written)) {
+                pending.result.complete(driverApplied[0]);
+            } else {
+                pending.result.completeExceptionally(new OptimisticLockingFailureException(
+                        "Trip " + pending.trip.getId() + " or its driver was modified concurrently"));
+            }
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return false if a trip version or a required driver status did not match
+     */
+    private boolean writeAll(List<Pending> batch, boolean[] driverApplied) {
+        // One JDBC batch per statement: the batch size is the whole list
+        int[] tripCounts = jdbcTemplate.batchUpdate(UPDATE_TRIP, batch, batch.size(),
+                (ps, pending) -> bindTrip(ps, pending.trip, pending.expectedVersion))[0];
+        for (int count : tripCounts) {
+            if (count == 0) {
+                return false;
+            }
+        }
+
+        List<Pending> withDriver = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).driverWrite != null) {
+                withDriver.add(batch.get(i));
+                positions.add(i);
+            }
+        }
+        if (withDriver.isEmpty()) {
+            return true;
+        }
+        int[] driverCounts = jdbcTemplate.batchUpdate(UPDATE_DRIVER, withDriver, withDriver.size(),
+                (ps, pending) -> bindDriver(ps, pending.driverWrite))[0];
+        for (int i = 0; i < driverCounts.length; i++) {
+            boolean applied = driverCounts[i] != 0;
+            if (!applied && withDriver.get(i).driverWrite.required()) {
+                return false;
+            }
+            driverApplied[positions.get(i)] = applied;
+        }
+        return true;
+    }
+
+    private static void bindTrip(PreparedStatement ps, Trip trip, long expectedVersion) throws SQLException {
+        ps.setObject(1, trip.getDriverId(), Types.BIGINT);
+        ps.setString(2, trip.getStatus().name());
+        ps.setBigDecimal(3, trip.getFinalFare());
+        ps.setBigDecimal(4, trip.getDistanceKm());
+        ps.setString(5, trip.getPaymentStatus().name());
+        ps.setTimestamp(6, timestamp(trip.getAcceptedAt()));
+        ps.setTimestamp(7, timestamp(trip.getStartedAt()));
+        ps.setTimestamp(8, timestamp(trip.getCompletedAt()));
+        ps.setTimestamp(9, timestamp(trip.getCancelledAt()));
+        ps.setLong(10, trip.getId());
+        ps.setLong(11, expectedVersion);
+    }
+
+    private static void bindDriver(PreparedStatement ps, DriverWrite driverWrite) throws SQLException {
+        ps.setString(1, driverWrite.status().name());
+        ps.setInt(2, driverWrite.completedTrips());
+        ps.setLong(3, driverWrite.driverId());
+        ps.setString(4, driverWrite.expectedStatus() != null ? driverWrite.expectedStatus().name() : null);
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Driver status change written with a transition.
+     *
+     * @param expectedStatus the status the driver must be in, or null for any
+     * @param completedTrips added to the driver's trip count
+     * @param required       whether the transition fails when the driver is not in the expected status
+     */
+    public record DriverWrite(Long driverId, DriverStatus expectedStatus, DriverStatus status,
+                              int completedTrips, boolean required) {
+    }
+
+    private static final class Pending {
+
+        private final Trip trip;
+        private final long expectedVersion;
+        private final DriverWrite driverWrite;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        // Taken by the writer before writing, or by a caller that gave up waiting
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Pending(Trip trip, long expectedVersion, DriverWrite driverWrite) {
+            this.trip = trip;
+            this.expectedVersion = expectedVersion;
+            this.driverWrite = driverWrite;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.ridehailing.trip.service;
+
+import com.ridehailing.trip.domain.Trip;
+import com.ridehailing.trip.domain.TripStatus;
+import com.ridehailing.trip.domain.TripTraceChunk;
+import com.ridehailing.trip.repository.TripTraceChunkRepository;
+import com.ridehailing.trip.trace.TraceCodec;
+import com.ridehailing.trip.trace.TracePoint;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Breadcrumb trail of in-progress trips, kept for disputes and fare audits.
+ *
+ * Fixes are appended to an open {@link TraceCodec} chunk per trip and node. A chunk is sealed
+ * when it is full or older than {@code max-chunk-age-seconds}, and a scheduled flusher writes
+ * sealed chunks to trip_trace_chunks as bytea rows, so pings never wait for the database and a
+ * crash loses at most the last chunk age. The last partial chunk is sealed when the trip ends
+ * and written by the same flusher, so ending a trip never fails on a trace write.
+ * Fixes that are not newer than the previous one are dropped.
+ *
+ * Pings may reach any node: a node that did not see the trip start opens its own trace from
+ * the active-trip registry, and drops it once the trip is no longer in progress. Chunks of
+ * several nodes overlap in time, so a trace is read by merging all points in time order;
+ * sequence numbers only order the chunks of one node.
+ */
+@Service
+@Slf4j
+public class TripTraceService {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    private final TripTraceChunkRepository chunkRepository;
+    private final ActiveTripRegistry activeTripRegistry;
+    private final int pointsPerChunk;
+    private final long maxChunkAgeMillis;
+    private final Map<Long, OpenTrace> byDriverId = new ConcurrentHashMap<>();
+    private final Queue<SealedChunk> sealed = new ConcurrentLinkedQueue<>();
+
+    public TripTraceService(
+            TripTraceChunkRepository chunkRepository,
+            ActiveTripRegistry activeTripRegistry,
+            @Value("${app.trip.trace.points-per-chunk:256}") int pointsPerChunk,
+            @Value("${app.trip.trace.max-chunk-age-seconds:60}") long maxChunkAgeSeconds) {
+        this.chunkRepository = chunkRepository;
+        this.activeTripRegistry = activeTripRegistry;
+        this.pointsPerChunk = pointsPerChunk;
+        this.maxChunkAgeMillis = maxChunkAgeSeconds * 1000;
+    }
+
+    public void start(Long driverId, Long tripId) {
+        byDriverId.put(driverId, new OpenTrace(tripId));
+    }
+
+    /**
+     * Append a fix; ignored unless the driver has a trip in progress.
+     */
+    public void record(Long driverId, double latitude, double longitude, LocalDateTime receivedAt) {
+        OpenTrace trace = byDriverId.get(driverId);
+        if (trace == null) {
+            // The trip started on another node
+            Long tripId = activeTripRegistry.findActiveDriverTrip(driverId)
+                    .filter(trip -> trip.getStatus() == TripStatus.IN_PROGRESS)
+                    .map(Trip::getId)
+                    .orElse(null);
+            if (tripId == null) {
+                return;
+            }
+            trace = byDriverId.computeIfAbsent(driverId, id -> new OpenTrace(tripId));
+        }
+        TripTraceChunk full;
+        synchronized (trace) {
+            full = trace.append(toMillis(receivedAt), latitude, longitude, pointsPerChunk);
+        }
+        if (full != null) {
+            sealed.add(new SealedChunk(full, 0));
+        }
+    }
+
+    /**
+     * Stop recording the trip and queue its last partial chunk for the flusher.
+     */
+    public void finish(Long driverId, Long tripId) {
+        OpenTrace trace = byDriverId.get(driverId);
+        if (trace == null || !trace.tripId.equals(tripId) || !byDriverId.remove(driverId, trace)) {
+            return;
+        }
+        TripTraceChunk last;
+        synchronized (trace) {
+            last = trace.seal();
+        }
+        if (last != null) {
+            sealed.add(new SealedChunk(last, 0));
+        }
+        log.debug("Trip {} trace closed: {} points in {} bytes", tripId, trace.totalPoints, trace.totalBytes);
+    }
+
+    /**
+     * Decoded trace of the trip in time order, including sealed chunks not yet written and
+     * the open chunk of a trip in progress on this node.
+     */
+    public List<TracePoint> getTrace(Long tripId, Long driverId) {
+        List<TracePoint> points = new ArrayList<>();
+        for (TripTraceChunk chunk : chunkRepository.findByTripIdOrderBySequenceAsc(tripId)) {
+            points.addAll(TraceCodec.decode(chunk.getData(), chunk.getPointCount()));
+        }
+        for (SealedChunk pending : sealed) {
+            if (pending.chunk().getTripId().equals(tripId)) {
+                points.addAll(TraceCodec.decode(pending.chunk().getData(), pending.chunk().getPointCount()));
+            }
+        }
+        OpenTrace trace = driverId != null ? byDriverId.get(driverId) : null;
+        if (trace != null && trace.tripId.equals(tripId)) {
+            synchronized (trace) {
+                points.addAll(trace.encoder.decode());
+            }
+        }
+        points.sort(Comparator.comparingLong(TracePoint::recordedAtMillis));
+        return points;
+    }
+
+    /**
+     * Seal chunks older than the maximum age, close traces of trips that ended on another
+     * node, and write the sealed chunks. A chunk that fails to save is retried on the next
+     * run, up to {@value #MAX_SAVE_ATTEMPTS} attempts.
+     */
+    @Scheduled(fixedDelayString = "${app.trip.trace.flush-interval-ms:5000}")
+    public void flush() {
+        long sealBefore = System.currentTimeMillis() - maxChunkAgeMillis;
+        for (Map.Entry<Long, OpenTrace> entry : byDriverId.entrySet()) {
+            OpenTrace trace = entry.getValue();
+            boolean ended = activeTripRegistry.findActiveTrip(trace.tripId)
+                    .map(trip -> trip.getStatus() != TripStatus.IN_PROGRESS)
+                    .orElse(true);
+            if (ended && !byDriverId.remove(entry.getKey(), trace)) {
+                continue;
+            }
+            TripTraceChunk chunk;
+            synchronized (trace) {
+                chunk = ended || trace.isOpenSince(sealBefore) ? trace.seal() : null;
+            }
+            if (chunk != null) {
+                sealed.add(new SealedChunk(chunk, 0));
+            }
+        }
+
+        int queued = sealed.size();
+        for (int i = 0; i < queued; i++) {
+            SealedChunk pending = sealed.poll();
+            if (pending == null) {
+                break;
+            }
+            try {
+                chunkRepository.save(pending.chunk());
+            } catch (Exception e) {
+                TripTraceChunk chunk = pending.chunk();
+                if (pending.attempts() + 1 < MAX_SAVE_ATTEMPTS) {
+                    sealed.add(new SealedChunk(chunk, pending.attempts() + 1));
+                    log.warn("Failed to save trace chunk {} of trip {}, will retry: {}",
+                            chunk.getSequence(), chunk.getTripId(), e.getMessage());
+                } else {
+                    log.error("Dropping trace chunk {} of trip {} ({} points) after {} attempts: {}",
+                            chunk.getSequence(), chunk.getTripId(), chunk.getPointCount(), MAX_SAVE_ATTEMPTS,
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        for (Map.Entry<Long, OpenTrace> entry : byDriverId.entrySet()) {
+            OpenTrace trace = entry.getValue();
+            TripTraceChunk chunk;
+            synchronized (trace) {
+                chunk = trace.seal();
+            }
+            if (chunk != null) {
+                sealed.add(new SealedChunk(chunk, 0));
+            }
+        }
+        flush();
+    }
+
+    static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    private static long toMillis(LocalDateTime recordedAt) {
+        return recordedAt.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private record SealedChunk(TripTraceChunk chunk, int attempts) {
+    }
+
+    private static final class OpenTrace {
+
+        private final Long tripId;
+        private TraceCodec.Encoder encoder = new TraceCodec.Encoder();
+        private int sequence;
+        private long firstMillis;
+        private long lastMillis = Long.MIN_VALUE;
+        private int totalPoints;
+        private long totalBytes;
+
+        OpenTrace(Long tripId) {
+            this.tripId = tripId;
+        }
+
+        /**
+         * @return the chunk to persist when this fix filled it, otherwise null
+         */
+        TripTraceChunk append(long millis, double latitude, double longitude, int pointsPerChunk) {
+            if (millis <= lastMillis) {
+                return null;
+            }
+            if (encoder.pointCount() == 0) {
+                firstMillis = millis;
+            }
+            encoder.append(millis, latitude, longitude);
+            lastMillis = millis;
+            totalPoints++;
+            return encoder.pointCount() >= pointsPerChunk ? seal() : null;
+        }
+
+        boolean isOpenSince(long millis) {
+            return encoder.pointCount() > 0 && firstMillis < millis;
+        }
+
+        TripTraceChunk seal() {
+            if (encoder.pointCount() == 0) {
+                return null;
+            }
+            TripTraceChunk chunk = TripTraceChunk.builder()
+                    .tripId(tripId)
+                    .sequence(sequence++)
+                    .pointCount(encoder.pointCount())
+                    .firstRecordedAt(toLocalDateTime(firstMillis))
+                    .lastRecordedAt(toLocalDateTime(lastMillis))
+                    .data(encoder.toByteArray())
+                    .build();
+            totalBytes += encoder.sizeInBytes();
+            encoder = new TraceCodec.Encoder();
+            return chunk;
+        }
+    }
+}
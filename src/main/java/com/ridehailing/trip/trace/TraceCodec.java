@@ -0,0 +1,138 @@
+package com.ridehailing.trip.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact encoding of (timestamp, lat, lon) sequences.
+ *
+ * Coordinates are quantised to 1e-5 degrees. The first point of a chunk is stored as is,
+ * the second as deltas, and every later one as delta-of-delta: for a vehicle moving at a
+ * steady speed with a steady ping interval the values are close to zero. Each value is
+ * zigzag-mapped (small negatives become small positives) and written as a varint, so a
+ * typical point takes three to four bytes. Chunks are self-contained and decode on their own.
+ */
+public final class TraceCodec {
+
+    private static final double SCALE = 1e5;
+
+    private TraceCodec() {
+    }
+
+    public static List<TracePoint> decode(byte[] data, int pointCount) {
+        List<TracePoint> points = new ArrayList<>(pointCount);
+        int[] position = {0};
+        long time = 0, lat = 0, lon = 0;
+        long deltaTime = 0, deltaLat = 0, deltaLon = 0;
+        for (int i = 0; i < pointCount; i++) {
+            long t = readZigzag(data, position);
+            long a = readZigzag(data, position);
+            long o = readZigzag(data, position);
+            if (i == 0) {
+                time = t;
+                lat = a;
+                lon = o;
+            } else {
+                if (i == 1) {
+                    deltaTime = t;
+                    deltaLat = a;
+                    deltaLon = o;
+                } else {
+                    deltaTime += t;
+                    deltaLat += a;
+                    deltaLon += o;
+                }
+                time += deltaTime;
+                lat += deltaLat;
+                lon += deltaLon;
+            }
+            points.add(new TracePoint(time, lat / SCALE, lon / SCALE));
+        }
+        return points;
+    }
+
+    private static long readZigzag(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Appends points to one chunk. Not thread-safe.
+     */
+    public static final class Encoder {
+
+        private byte[] buffer = new byte[256];
+        private int size;
+        private int pointCount;
+
+        private long time, lat, lon;
+        private long deltaTime, deltaLat, deltaLon;
+
+        public void append(long recordedAtMillis, double latitude, double longitude) {
+            long t = recordedAtMillis;
+            long a = Math.round(latitude * SCALE);
+            long o = Math.round(longitude * SCALE);
+            if (pointCount == 0) {
+                writeZigzag(t);
+                writeZigzag(a);
+                writeZigzag(o);
+            } else {
+                long dt = t - time;
+                long da = a - lat;
+                long dO = o - lon;
+                if (pointCount == 1) {
+                    writeZigzag(dt);
+                    writeZigzag(da);
+                    writeZigzag(dO);
+                } else {
+                    writeZigzag(dt - deltaTime);
+                    writeZigzag(da - deltaLat);
+                    writeZigzag(dO - deltaLon);
+                }
+                deltaTime = dt;
+                deltaLat = da;
+                deltaLon = dO;
+            }
+            time = t;
+            lat = a;
+            lon = o;
+            pointCount++;
+        }
+
+        public int pointCount() {
+            return pointCount;
+        }
+
+        public int sizeInBytes() {
+            return size;
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        public List<TracePoint> decode() {
+            return TraceCodec.decode(buffer, pointCount);
+        }
+
+        private void writeZigzag(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            if (size + 10 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[size++] = (byte) zigzag;
+        }
+    }
+}
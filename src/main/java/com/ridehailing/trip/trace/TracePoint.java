@@ -0,0 +1,8 @@
+package com.ridehailing.trip.trace;
+
+/**
+ * One decoded GPS fix of a trip trace. Coordinates carry the 1e-5 degree (~1 m)
+ * precision of the encoding.
+ */
+public record TracePoint(long recordedAtMillis, double latitude, double longitude) {
+}
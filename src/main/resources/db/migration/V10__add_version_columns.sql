@@ -0,0 +1,3 @@
+-- Optimistic locking for concurrent trip/driver state transitions
+ALTER TABLE drivers ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE trips ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- GPS breadcrumbs of trips, delta-of-delta/varint encoded in fixed-size chunks
+CREATE TABLE trip_trace_chunks (
+    id BIGSERIAL PRIMARY KEY,
+    trip_id BIGINT NOT NULL,
+    sequence INTEGER NOT NULL,
+    point_count INTEGER NOT NULL,
+    first_recorded_at TIMESTAMP NOT NULL,
+    last_recorded_at TIMESTAMP NOT NULL,
+    data BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (trip_id) REFERENCES trips(id) ON DELETE CASCADE,
+    UNIQUE (trip_id, sequence)
+);
+
+CREATE INDEX idx_trace_chunk_trip_id ON trip_trace_chunks(trip_id);
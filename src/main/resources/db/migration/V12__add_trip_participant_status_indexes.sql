@@ -0,0 +1,3 @@
+-- Active-trip lookups filter on the participant and the status together
+CREATE INDEX idx_trip_rider_status ON trips(rider_id, status);
+CREATE INDEX idx_trip_driver_status ON trips(driver_id, status);
@@ -0,0 +1,2 @@
+-- Trace chunks of one trip may be written by several nodes, each numbering its own chunks
+ALTER TABLE trip_trace_chunks DROP CONSTRAINT IF EXISTS trip_trace_chunks_trip_id_sequence_key;
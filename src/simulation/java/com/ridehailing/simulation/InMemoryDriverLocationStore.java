@@ -0,0 +1,55 @@
+package com.ridehailing.simulation;
+
+import com.ridehailing.driver.domain.DriverLocation;
+import com.ridehailing.driver.index.DriverSpatialIndex;
+import com.ridehailing.driver.repository.DriverLocationStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Location store without Redis: latest locations in a map, nearest-driver queries on the grid index.
+ */
+@Repository
+@Profile("simulation")
+@ConditionalOnProperty(name = "app.driver.location.store", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryDriverLocationStore implements DriverLocationStore {
+
+    private final DriverSpatialIndex driverSpatialIndex;
+    private final Map<Long, DriverLocation> locations = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(DriverLocation location) {
+        locations.put(location.getDriverId(), location);
+        driverSpatialIndex.put(location);
+    }
+
+    @Override
+    public void saveAll(Collection<DriverLocation> locations) {
+        locations.forEach(this::save);
+    }
+
+    @Override
+    public Optional<DriverLocation> findById(Long driverId) {
+        return Optional.ofNullable(locations.get(driverId));
+    }
+
+    @Override
+    public void deleteById(Long driverId) {
+        locations.remove(driverId);
+        driverSpatialIndex.remove(driverId);
+    }
+
+    @Override
+    public List<DriverLocation> findNearby(double latitude, double longitude, double radiusKm, int limit) {
+        return driverSpatialIndex.findNearest(latitude, longitude, radiusKm, limit);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ridehailing.simulation;
+
+import com.ridehailing.driver.service.DriverReservationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Driver leases in a local map instead of Redis, with the same reserve/extend/release semantics.
+ */
+@Service
+@Primary
+@Profile("simulation")
+public class InMemoryDriverReservationService extends DriverReservationService {
+
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final long leaseMillis;
+
+    public InMemoryDriverReservationService(
+            @Value("${app.dispatch.reservation.lease-ms:30000}") long leaseMillis) {
+        super(null, leaseMillis);
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public boolean reserve(Long driverId, Long tripId) {
+        long now = System.currentTimeMillis();
+        Lease lease = leases.compute(driverId, (id, current) ->
+                current == null || current.expiresAt() <= now || current.tripId().equals(tripId)
+                        ? new Lease(tripId, now + leaseMillis)
+                        : current);
+        return lease.tripId().equals(tripId);
+    }
+
+    @Override
+    public void release(Long driverId, Long tripId) {
+        leases.computeIfPresent(driverId, (id, current) -> current.tripId().equals(tripId) ? null : current);
+    }
+
+    @Override
+    public Set<Long> findReserved(Collection<Long> driverIds) {
+        long now = System.currentTimeMillis();
+        Set<Long> reserved = new HashSet<>();
+        for (Long driverId : driverIds) {
+            Lease lease = leases.get(driverId);
+            if (lease != null && lease.expiresAt() > now) {
+                reserved.add(driverId);
+            }
+        }
+        return reserved;
+    }
+
+    @Override
+    public Map<Long, Long> findLeaseOwners(Collection<Long> driverIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> owners = new HashMap<>();
+        for (Long driverId : driverIds) {
+            Lease lease = leases.get(driverId);
+            if (lease != null && lease.expiresAt() > now) {
+                owners.put(driverId, lease.tripId());
+            }
+        }
+        return owners;
+    }
+
+    private record Lease(Long tripId, long expiresAt) {
+    }
+}
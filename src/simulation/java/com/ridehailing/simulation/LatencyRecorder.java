@@ -0,0 +1,51 @@
+package com.ridehailing.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of samples with exact percentiles; a run records at most a few million values.
+ */
+final class LatencyRecorder {
+
+    private double[] samples = new double[1024];
+    private int count;
+
+    synchronized void record(double value) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = value;
+    }
+
+    void recordNanos(long nanos) {
+        record(nanos / 1_000_000.0);
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized double mean() {
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * Nearest-rank percentile, {@code p} in [0, 100].
+     */
+    synchronized double percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        double[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+}
@@ -0,0 +1,132 @@
+package com.ridehailing.simulation;
+
+import com.ridehailing.driver.pinglog.SegmentLog;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Recorded driver movement from a ping segment log, replayed on the simulated clock.
+ *
+ * Recorded drivers are numbered in order of first appearance (at most {@code maxDrivers});
+ * a record at offset t from the first one is due once the simulation reaches t.
+ */
+final class PingReplay {
+
+    private final int[] driverIndex;
+    private final long[] offsetMillis;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final int driverCount;
+    private int cursor;
+
+    private PingReplay(int[] driverIndex, long[] offsetMillis, double[] latitude, double[] longitude,
+                       int driverCount) {
+        this.driverIndex = driverIndex;
+        this.offsetMillis = offsetMillis;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.driverCount = driverCount;
+    }
+
+    static PingReplay load(Path directory, int maxDrivers) {
+        Records records = new Records();
+        try (SegmentLog log = new SegmentLog(directory, Long.MAX_VALUE / 4, 1)) {
+            log.scan(0, Long.MAX_VALUE, (driverId, timestampMillis, lat, lon, status) ->
+                    records.add(driverId, timestampMillis, lat, lon));
+        }
+        if (records.count == 0) {
+            throw new IllegalArgumentException("No pings found in " + directory);
+        }
+
+        // Segments are in append order; sort by the recorded timestamp
+        Integer[] order = IntStream.range(0, records.count).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong(i -> records.timestamps[i]));
+
+        LongIndex drivers = new LongIndex();
+        long first = records.timestamps[order[0]];
+        int[] driverIndex = new int[records.count];
+        long[] offsetMillis = new long[records.count];
+        double[] latitude = new double[records.count];
+        double[] longitude = new double[records.count];
+        int kept = 0;
+        for (int i : order) {
+            int index = drivers.indexOf(records.driverIds[i], maxDrivers);
+            if (index < 0) {
+                continue;
+            }
+            driverIndex[kept] = index;
+            offsetMillis[kept] = records.timestamps[i] - first;
+            latitude[kept] = records.latitudes[i];
+            longitude[kept] = records.longitudes[i];
+            kept++;
+        }
+        return new PingReplay(Arrays.copyOf(driverIndex, kept), Arrays.copyOf(offsetMillis, kept),
+                Arrays.copyOf(latitude, kept), Arrays.copyOf(longitude, kept), drivers.size);
+    }
+
+    int driverCount() {
+        return driverCount;
+    }
+
+    /**
+     * Deliver every record due at or before the simulated time, in timestamp order.
+     */
+    void advanceTo(long simMillis, PositionSink sink) {
+        while (cursor < offsetMillis.length && offsetMillis[cursor] <= simMillis) {
+            sink.moveTo(driverIndex[cursor], latitude[cursor], longitude[cursor]);
+            cursor++;
+        }
+    }
+
+    @FunctionalInterface
+    interface PositionSink {
+        void moveTo(int driver, double latitude, double longitude);
+    }
+
+    private static final class Records {
+
+        private long[] driverIds = new long[1024];
+        private long[] timestamps = new long[1024];
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+        private int count;
+
+        void add(long driverId, long timestampMillis, double lat, double lon) {
+            if (count == driverIds.length) {
+                driverIds = Arrays.copyOf(driverIds, count * 2);
+                timestamps = Arrays.copyOf(timestamps, count * 2);
+                latitudes = Arrays.copyOf(latitudes, count * 2);
+                longitudes = Arrays.copyOf(longitudes, count * 2);
+            }
+            driverIds[count] = driverId;
+            timestamps[count] = timestampMillis;
+            latitudes[count] = lat;
+            longitudes[count] = lon;
+            count++;
+        }
+    }
+
+    // Dense numbering of recorded driver ids in order of first appearance
+    private static final class LongIndex {
+
+        private final Map<Long, Integer> indices = new HashMap<>();
+        private int size;
+
+        int indexOf(long id, int limit) {
+            Integer index = indices.get(id);
+            if (index != null) {
+                return index;
+            }
+            if (size == limit) {
+                return -1;
+            }
+            indices.put(id, size);
+            return size++;
+        }
+    }
+}
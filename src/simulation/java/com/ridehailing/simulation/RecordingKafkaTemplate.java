@@ -0,0 +1,45 @@
+package com.ridehailing.simulation;
+
+import com.ridehailing.notification.dto.TripEventDto;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Kafka stand-in: sends complete immediately and are handed to in-process subscribers.
+ * The producer factory is never asked for a producer, so no broker is contacted.
+ */
+public class RecordingKafkaTemplate extends KafkaTemplate<String, TripEventDto> {
+
+    private final Map<String, List<Consumer<TripEventDto>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> sentByTopic = new ConcurrentHashMap<>();
+
+    public RecordingKafkaTemplate() {
+        super(new DefaultKafkaProducerFactory<>(Map.of()));
+    }
+
+    public void subscribe(String topic, Consumer<TripEventDto> subscriber) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    public long sentCount(String topic) {
+        AtomicLong sent = sentByTopic.get(topic);
+        return sent != null ? sent.get() : 0;
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, TripEventDto>> send(String topic, String key, TripEventDto data) {
+        sentByTopic.computeIfAbsent(topic, t -> new AtomicLong()).incrementAndGet();
+        subscribers.getOrDefault(topic, List.of()).forEach(subscriber -> subscriber.accept(data));
+        return CompletableFuture.completedFuture(new SendResult<>(new ProducerRecord<>(topic, key, data), null));
+    }
+}
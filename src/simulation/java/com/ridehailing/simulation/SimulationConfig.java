@@ -0,0 +1,21 @@
+package com.ridehailing.simulation;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Local stand-ins for the external systems, active only under the simulation profile.
+ * Locations and reservations are handled by {@link InMemoryDriverLocationStore} and
+ * {@link InMemoryDriverReservationService}; Postgres is replaced by H2 in application-simulation.yml.
+ */
+@Configuration
+@Profile("simulation")
+public class SimulationConfig {
+
+    // Replaces the auto-configured KafkaTemplate, which is conditional on a missing bean
+    @Bean
+    public RecordingKafkaTemplate kafkaTemplate() {
+        return new RecordingKafkaTemplate();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ridehailing.simulation;
+
+import java.io.PrintStream;
+
+/**
+ * Outcome of a run. Latencies are wall-clock milliseconds measured around the service calls;
+ * dispatch latency runs from the request call to the trip.driver-assigned event.
+ */
+final class SimulationReport {
+
+    final LatencyRecorder locationUpdates = new LatencyRecorder();
+    final LatencyRecorder tripRequests = new LatencyRecorder();
+    final LatencyRecorder dispatch = new LatencyRecorder();
+    final LatencyRecorder accepts = new LatencyRecorder();
+    final LatencyRecorder pickupKm = new LatencyRecorder();
+
+    int drivers;
+    int requested;
+    int matched;
+    int timedOut;
+    int unmatchedAtEnd;
+    int acceptFailures;
+    int completed;
+    int droppedNoIdleRider;
+    int locationErrors;
+    int tripErrors;
+    double simulatedSeconds;
+    double wallSeconds;
+
+    double matchRate() {
+        int decided = matched + timedOut + unmatchedAtEnd;
+        return decided == 0 ? 0 : (double) matched / decided;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.println("=== Simulation report ===");
+        out.printf("Drivers %d, simulated %.0f s in %.1f s wall (%.1fx)%n",
+                drivers, simulatedSeconds, wallSeconds, wallSeconds > 0 ? simulatedSeconds / wallSeconds : 0);
+        out.printf("Requests %d, matched %d, timed out %d, unmatched at end %d -> match rate %.1f%%%n",
+                requested, matched, timedOut, unmatchedAtEnd, 100 * matchRate());
+        out.printf("Accepted %d (failed %d), completed %d, skipped for lack of idle riders %d%n",
+                accepts.count(), acceptFailures, completed, droppedNoIdleRider);
+        out.printf("Errors: location updates %d, trip calls %d%n", locationErrors, tripErrors);
+        out.println();
+        out.printf("%-18s %10s %10s %10s%n", "latency (ms)", "count", "p50", "p99");
+        printLatency(out, "location update", locationUpdates);
+        printLatency(out, "trip request", tripRequests);
+        printLatency(out, "dispatch", dispatch);
+        printLatency(out, "accept", accepts);
+        out.println();
+        out.printf("Pickup distance (km): mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f%n",
+                pickupKm.mean(), pickupKm.percentile(50), pickupKm.percentile(90), pickupKm.percentile(99));
+    }
+
+    private static void printLatency(PrintStream out, String name, LatencyRecorder recorder) {
+        out.printf("%-18s %10d %10.3f %10.3f%n",
+                name, recorder.count(), recorder.percentile(50), recorder.percentile(99));
+    }
+}
@@ -0,0 +1,32 @@
+package com.ridehailing.simulation;
+
+import com.ridehailing.RideHailingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application with the simulation profile (no HTTP server, local stand-ins for
+ * Postgres, Redis and Kafka), runs one simulation and prints its report.
+ *
+ * Options: --drivers, --riders, --duration-minutes, --speedup, --requests-per-minute,
+ * --ping-interval-seconds, --match-timeout-seconds, --center-lat, --center-lon, --radius-km,
+ * --driver-speed-kmh, --seed, --pings=&lt;ping log directory to replay&gt;
+ */
+public final class SimulationRunner {
+
+    private SimulationRunner() {
+    }
+
+    public static void main(String[] args) {
+        SimulationSettings settings = SimulationSettings.parse(args);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RideHailingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=simulation");
+        try {
+            context.getBean(Simulator.class).run(settings).print(System.out);
+        } finally {
+            context.close();
+        }
+    }
+}
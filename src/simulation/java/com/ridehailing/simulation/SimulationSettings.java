@@ -0,0 +1,65 @@
+package com.ridehailing.simulation;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parameters of one simulation run, parsed from {@code --name=value} arguments.
+ *
+ * @param speedup            simulated seconds per wall-clock second
+ * @param requestsPerMinute  mean rider demand in simulated time (Poisson arrivals)
+ * @param matchTimeoutSeconds simulated time a rider waits for a driver before cancelling
+ * @param pingLog            segment log directory to replay driver movement from, or null for synthetic movement
+ */
+public record SimulationSettings(
+        int drivers,
+        int riders,
+        int durationMinutes,
+        double speedup,
+        double requestsPerMinute,
+        int pingIntervalSeconds,
+        int matchTimeoutSeconds,
+        double centerLatitude,
+        double centerLongitude,
+        double radiusKm,
+        double driverSpeedKmh,
+        long seed,
+        Path pingLog) {
+
+    private static final Set<String> KNOWN = Set.of(
+            "drivers", "riders", "duration-minutes", "speedup", "requests-per-minute",
+            "ping-interval-seconds", "match-timeout-seconds", "center-lat", "center-lon",
+            "radius-km", "driver-speed-kmh", "seed", "pings");
+
+    public static SimulationSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        SimulationSettings settings = new SimulationSettings(
+                Integer.parseInt(values.getOrDefault("drivers", "500")),
+                Integer.parseInt(values.getOrDefault("riders", "2000")),
+                Integer.parseInt(values.getOrDefault("duration-minutes", "30")),
+                Double.parseDouble(values.getOrDefault("speedup", "10")),
+                Double.parseDouble(values.getOrDefault("requests-per-minute", "60")),
+                Integer.parseInt(values.getOrDefault("ping-interval-seconds", "4")),
+                Integer.parseInt(values.getOrDefault("match-timeout-seconds", "300")),
+                Double.parseDouble(values.getOrDefault("center-lat", "37.7749")),
+                Double.parseDouble(values.getOrDefault("center-lon", "-122.4194")),
+                Double.parseDouble(values.getOrDefault("radius-km", "8")),
+                Double.parseDouble(values.getOrDefault("driver-speed-kmh", "30")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.containsKey("pings") ? Path.of(values.get("pings")) : null);
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        return settings;
+    }
+}
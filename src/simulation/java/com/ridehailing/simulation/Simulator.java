@@ -0,0 +1,482 @@
+package com.ridehailing.simulation;
+
+import com.ridehailing.auth.domain.User;
+import com.ridehailing.auth.domain.UserRole;
+import com.ridehailing.auth.repository.UserRepository;
+import com.ridehailing.common.security.JwtPrincipal;
+import com.ridehailing.common.util.Constants;
+import com.ridehailing.common.util.DistanceCalculator;
+import com.ridehailing.driver.domain.Driver;
+import com.ridehailing.driver.domain.Vehicle;
+import com.ridehailing.driver.dto.LocationUpdateRequest;
+import com.ridehailing.driver.repository.DriverRepository;
+import com.ridehailing.driver.repository.VehicleRepository;
+import com.ridehailing.driver.service.DriverService;
+import com.ridehailing.rider.domain.Rider;
+import com.ridehailing.rider.repository.RiderRepository;
+import com.ridehailing.trip.dto.TripRequestDto;
+import com.ridehailing.trip.service.TripService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Drives the real services in-process with synthetic or recorded drivers and synthetic riders.
+ *
+ * Time advances in ticks of one ping interval. Each tick:
+ * - assignments published since the last tick are accepted by their drivers;
+ * - every driver moves (idle drivers wander or follow the recorded pings, busy drivers head
+ *   for the pickup or destination) and sends a ping through {@link DriverService};
+ * - riders open Poisson-distributed trip requests through {@link TripService};
+ * - riders that waited longer than the match timeout cancel.
+ * The tick then sleeps so that simulated time runs {@code speedup} times faster than wall time.
+ * The server stamps pings with its own clock, so above speedup 1 the odometer sees trips as
+ * too fast, rejects them and the fare falls back to the estimate.
+ */
+@Component
+@Profile("simulation")
+@RequiredArgsConstructor
+@Slf4j
+public class Simulator {
+
+    private static final double IDLE_SPEED_FACTOR = 0.5;
+    private static final long DRAIN_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final UserRepository userRepository;
+    private final RiderRepository riderRepository;
+    private final DriverRepository driverRepository;
+    private final VehicleRepository vehicleRepository;
+    private final DriverService driverService;
+    private final TripService tripService;
+    private final RecordingKafkaTemplate kafkaTemplate;
+
+    public SimulationReport run(SimulationSettings settings) {
+        Random random = new Random(settings.seed());
+        PingReplay replay = settings.pingLog() != null ? PingReplay.load(settings.pingLog(), settings.drivers()) : null;
+        int driverCount = replay != null ? replay.driverCount() : settings.drivers();
+
+        List<SimDriver> drivers = seedDrivers(driverCount, settings, random);
+        Deque<SimRider> idleRiders = new ArrayDeque<>(seedRiders(settings.riders()));
+        Map<Long, SimDriver> driversById = new HashMap<>();
+        drivers.forEach(driver -> driversById.put(driver.driverId, driver));
+        log.info("Seeded {} drivers and {} riders", drivers.size(), idleRiders.size());
+
+        Queue<Assignment> assignments = new ConcurrentLinkedQueue<>();
+        kafkaTemplate.subscribe(Constants.TOPIC_TRIP_DRIVER_ASSIGNED, event ->
+                assignments.add(new Assignment(event.getTripId(), event.getDriverId(), System.nanoTime())));
+
+        SimulationReport report = new SimulationReport();
+        report.drivers = drivers.size();
+        Map<Long, OpenRequest> openRequests = new HashMap<>();
+        LocalDateTime clockStart = LocalDateTime.now();
+
+        long tickMillis = settings.pingIntervalSeconds() * 1000L;
+        double tickSeconds = tickMillis / 1000.0;
+        long tickBudgetNanos = (long) (tickMillis * 1_000_000L / settings.speedup());
+        long endMillis = settings.durationMinutes() * 60_000L;
+        long wallStart = System.nanoTime();
+
+        for (long simMillis = 0; simMillis < endMillis; simMillis += tickMillis) {
+            long tickStart = System.nanoTime();
+            LocalDateTime now = clockStart.plusNanos(simMillis * 1_000_000L);
+
+            acceptAssignments(assignments, openRequests, driversById, idleRiders, report);
+            if (replay != null) {
+                replay.advanceTo(simMillis, (index, latitude, longitude) -> drivers.get(index).follow(latitude, longitude));
+            }
+            for (SimDriver driver : drivers) {
+                driver.move(settings, tickSeconds, random);
+                ping(driver, now, report);
+                advanceTrip(driver, idleRiders, report);
+            }
+            requestTrips(settings, tickSeconds, simMillis, random, idleRiders, openRequests, report);
+            cancelTimedOut(settings, simMillis, openRequests, idleRiders, report);
+
+            long remaining = tickBudgetNanos - (System.nanoTime() - tickStart);
+            if (remaining > 0) {
+                sleep(remaining);
+            }
+        }
+        report.simulatedSeconds = endMillis / 1000.0;
+        report.wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+
+        // Let in-flight dispatch rounds finish so the last requests are not counted as unmatched
+        long drainUntil = System.nanoTime() + DRAIN_NANOS;
+        while (!openRequests.isEmpty() && System.nanoTime() < drainUntil) {
+            countLateAssignments(assignments, openRequests, report);
+            sleep(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        countLateAssignments(assignments, openRequests, report);
+        report.unmatchedAtEnd = openRequests.size();
+        return report;
+    }
+
+    private List<SimDriver> seedDrivers(int count, SimulationSettings settings, Random random) {
+        List<SimDriver> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("sim-driver-" + i + "@sim.local")
+                    .passwordHash("-")
+                    .role(UserRole.DRIVER)
+                    .build());
+            Driver driver = driverRepository.save(Driver.builder()
+                    .userId(user.getId())
+                    .name("Sim Driver " + i)
+                    .phoneNumber(String.format("+1555%07d", i))
+                    .build());
+            vehicleRepository.save(Vehicle.builder()
+                    .driverId(driver.getId())
+                    .plateNumber("SIM" + i)
+                    .model("Simulated")
+                    .color("Grey")
+                    .year(2024)
+                    .build());
+
+            SimDriver simDriver = new SimDriver(user, driver.getId());
+            double[] position = randomPoint(settings, settings.radiusKm(), random);
+            simDriver.latitude = position[0];
+            simDriver.longitude = position[1];
+            simDriver.heading = random.nextDouble() * 2 * Math.PI;
+            as(simDriver.principal, () -> {
+                driverService.goOnline();
+                return null;
+            });
+            drivers.add(simDriver);
+        }
+        return drivers;
+    }
+
+    private List<SimRider> seedRiders(int count) {
+        List<SimRider> riders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("sim-rider-" + i + "@sim.local")
+                    .passwordHash("-")
+                    .role(UserRole.RIDER)
+                    .build());
+            Rider rider = riderRepository.save(Rider.builder()
+                    .userId(user.getId())
+                    .name("Sim Rider " + i)
+                    .phoneNumber(String.format("+1666%07d", i))
+                    .build());
+            riders.add(new SimRider(user, rider.getId()));
+        }
+        return riders;
+    }
+
+    private void ping(SimDriver driver, LocalDateTime now, SimulationReport report) {
+        LocationUpdateRequest point = new LocationUpdateRequest();
+        point.setLatitude(driver.latitude);
+        point.setLongitude(driver.longitude);
+        point.setRecordedAt(now);
+        long start = System.nanoTime();
+        try {
+            as(driver.principal, () -> {
+                driverService.updateLocationBatch(List.of(point));
+                return null;
+            });
+            report.locationUpdates.recordNanos(System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            report.locationErrors++;
+            log.debug("Ping of driver {} failed: {}", driver.driverId, e.getMessage());
+        }
+    }
+
+    private void requestTrips(SimulationSettings settings, double tickSeconds, long simMillis, Random random,
+                              Deque<SimRider> idleRiders, Map<Long, OpenRequest> openRequests,
+                              SimulationReport report) {
+        int arrivals = poisson(settings.requestsPerMinute() * tickSeconds / 60.0, random);
+        for (int i = 0; i < arrivals; i++) {
+            SimRider rider = idleRiders.poll();
+            if (rider == null) {
+                report.droppedNoIdleRider++;
+                continue;
+            }
+            double[] origin = randomPoint(settings, settings.radiusKm(), random);
+            double[] destination = offset(origin, 2 + random.nextDouble() * 10, random.nextDouble() * 2 * Math.PI);
+
+            TripRequestDto request = new TripRequestDto();
+            request.setOriginLatitude(origin[0]);
+            request.setOriginLongitude(origin[1]);
+            request.setDestinationLatitude(destination[0]);
+            request.setDestinationLongitude(destination[1]);
+
+            long start = System.nanoTime();
+            try {
+                Long tripId = as(rider.principal, () -> tripService.requestTrip(request)).getId();
+                report.tripRequests.recordNanos(System.nanoTime() - start);
+                report.requested++;
+                openRequests.put(tripId, new OpenRequest(rider, start, simMillis, origin, destination));
+            } catch (RuntimeException e) {
+                report.tripErrors++;
+                idleRiders.add(rider);
+                log.debug("Trip request failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void acceptAssignments(Queue<Assignment> assignments, Map<Long, OpenRequest> openRequests,
+                                   Map<Long, SimDriver> driversById, Deque<SimRider> idleRiders,
+                                   SimulationReport report) {
+        Assignment assignment;
+        while ((assignment = assignments.poll()) != null) {
+            OpenRequest request = openRequests.remove(assignment.tripId());
+            SimDriver driver = driversById.get(assignment.driverId());
+            if (request == null || driver == null) {
+                // Assigned after the rider cancelled
+                continue;
+            }
+            report.matched++;
+            report.dispatch.recordNanos(assignment.assignedNanos() - request.requestedNanos());
+            report.pickupKm.record(DistanceCalculator.calculateDistance(
+                    driver.latitude, driver.longitude, request.origin()[0], request.origin()[1]));
+
+            Long tripId = assignment.tripId();
+            long start = System.nanoTime();
+            try {
+                if (driver.phase != Phase.IDLE) {
+                    throw new IllegalStateException("driver " + driver.driverId + " is already on a trip");
+                }
+                as(driver.principal, () -> tripService.acceptTrip(tripId));
+                report.accepts.recordNanos(System.nanoTime() - start);
+                driver.startPickup(tripId, request);
+            } catch (RuntimeException e) {
+                report.acceptFailures++;
+                log.debug("Accept of trip {} failed: {}", tripId, e.getMessage());
+                cancel(request.rider(), tripId, "Driver could not accept", report);
+                idleRiders.add(request.rider());
+            }
+        }
+    }
+
+    private void countLateAssignments(Queue<Assignment> assignments, Map<Long, OpenRequest> openRequests,
+                                      SimulationReport report) {
+        Assignment assignment;
+        while ((assignment = assignments.poll()) != null) {
+            OpenRequest request = openRequests.remove(assignment.tripId());
+            if (request != null) {
+                report.matched++;
+                report.dispatch.recordNanos(assignment.assignedNanos() - request.requestedNanos());
+            }
+        }
+    }
+
+    private void advanceTrip(SimDriver driver, Deque<SimRider> idleRiders, SimulationReport report) {
+        if (driver.phase == Phase.IDLE || !driver.arrived()) {
+            return;
+        }
+        Long tripId = driver.tripId;
+        try {
+            if (driver.phase == Phase.TO_PICKUP) {
+                as(driver.principal, () -> tripService.startTrip(tripId));
+                driver.startRide();
+                return;
+            }
+            as(driver.principal, () -> tripService.completeTrip(tripId));
+            report.completed++;
+        } catch (RuntimeException e) {
+            report.tripErrors++;
+            log.debug("Trip {} transition failed: {}", tripId, e.getMessage());
+            cancel(driver.rider, tripId, "Trip could not continue", report);
+        }
+        idleRiders.add(driver.rider);
+        driver.finishTrip();
+    }
+
+    private void cancelTimedOut(SimulationSettings settings, long simMillis, Map<Long, OpenRequest> openRequests,
+                                Deque<SimRider> idleRiders, SimulationReport report) {
+        long timeoutMillis = settings.matchTimeoutSeconds() * 1000L;
+        Iterator<Map.Entry<Long, OpenRequest>> it = openRequests.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, OpenRequest> entry = it.next();
+            OpenRequest request = entry.getValue();
+            if (simMillis - request.requestedSimMillis() >= timeoutMillis) {
+                it.remove();
+                report.timedOut++;
+                cancel(request.rider(), entry.getKey(), "No driver found", report);
+                idleRiders.add(request.rider());
+            }
+        }
+    }
+
+    private void cancel(SimRider rider, Long tripId, String reason, SimulationReport report) {
+        try {
+            as(rider.principal, () -> tripService.cancelTrip(tripId, reason));
+        } catch (RuntimeException e) {
+            report.tripErrors++;
+            log.debug("Cancel of trip {} failed: {}", tripId, e.getMessage());
+        }
+    }
+
+    // Same principal the JWT filter builds from a token with embedded profile ids
+    private static JwtPrincipal principal(User user, Long riderId, Long driverId) {
+        return new JwtPrincipal(user.getId(), user.getEmail(), user.getRole(), riderId, driverId, Long.MAX_VALUE);
+    }
+
+    private static <T> T as(JwtPrincipal principal, Supplier<T> action) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        SecurityContextHolder.setContext(context);
+        try {
+            return action.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Uniform over the disc around the configured center
+    private static double[] randomPoint(SimulationSettings settings, double radiusKm, Random random) {
+        double[] center = {settings.centerLatitude(), settings.centerLongitude()};
+        return offset(center, radiusKm * Math.sqrt(random.nextDouble()), random.nextDouble() * 2 * Math.PI);
+    }
+
+    private static double[] offset(double[] from, double distanceKm, double bearing) {
+        double dLat = distanceKm * Math.cos(bearing) / DistanceCalculator.KM_PER_DEGREE;
+        double dLon = distanceKm * Math.sin(bearing)
+                / (DistanceCalculator.KM_PER_DEGREE * Math.cos(Math.toRadians(from[0])));
+        return new double[]{from[0] + dLat, from[1] + dLon};
+    }
+
+    private static int poisson(double mean, Random random) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private enum Phase {
+        IDLE, TO_PICKUP, ON_TRIP
+    }
+
+    private record Assignment(Long tripId, Long driverId, long assignedNanos) {
+    }
+
+    private record OpenRequest(SimRider rider, long requestedNanos, long requestedSimMillis,
+                               double[] origin, double[] destination) {
+    }
+
+    private static final class SimRider {
+
+        private final JwtPrincipal principal;
+
+        SimRider(User user, Long riderId) {
+            this.principal = principal(user, riderId, null);
+        }
+    }
+
+    private static final class SimDriver {
+
+        private final JwtPrincipal principal;
+        private final Long driverId;
+        private double latitude;
+        private double longitude;
+        private double heading;
+        private boolean replayed;
+        private Phase phase = Phase.IDLE;
+        private Long tripId;
+        private SimRider rider;
+        private double[] target;
+        private double[] destination;
+
+        SimDriver(User user, Long driverId) {
+            this.principal = principal(user, null, driverId);
+            this.driverId = driverId;
+        }
+
+        // Recorded positions only move drivers that are not serving a simulated trip
+        void follow(double lat, double lon) {
+            replayed = true;
+            if (phase == Phase.IDLE) {
+                latitude = lat;
+                longitude = lon;
+            }
+        }
+
+        void move(SimulationSettings settings, double seconds, Random random) {
+            double stepKm = settings.driverSpeedKmh() * seconds / 3600.0;
+            if (phase != Phase.IDLE) {
+                double remainingKm = DistanceCalculator.calculateDistance(latitude, longitude, target[0], target[1]);
+                if (remainingKm <= stepKm) {
+                    latitude = target[0];
+                    longitude = target[1];
+                } else {
+                    double fraction = stepKm / remainingKm;
+                    latitude += (target[0] - latitude) * fraction;
+                    longitude += (target[1] - longitude) * fraction;
+                }
+                return;
+            }
+            if (replayed) {
+                return;
+            }
+            // Cruise with a slowly drifting heading, turning back toward the center near the edge
+            double fromCenterKm = DistanceCalculator.calculateDistance(
+                    latitude, longitude, settings.centerLatitude(), settings.centerLongitude());
+            if (fromCenterKm > settings.radiusKm()) {
+                heading = Math.atan2(
+                        (settings.centerLongitude() - longitude) * Math.cos(Math.toRadians(latitude)),
+                        settings.centerLatitude() - latitude);
+            } else {
+                heading += random.nextGaussian() * 0.3;
+            }
+            double[] next = offset(new double[]{latitude, longitude}, stepKm * IDLE_SPEED_FACTOR, heading);
+            latitude = next[0];
+            longitude = next[1];
+        }
+
+        boolean arrived() {
+            return latitude == target[0] && longitude == target[1];
+        }
+
+        void startPickup(Long tripId, OpenRequest request) {
+            this.phase = Phase.TO_PICKUP;
+            this.tripId = tripId;
+            this.rider = request.rider();
+            this.target = request.origin();
+            this.destination = request.destination();
+        }
+
+        void startRide() {
+            phase = Phase.ON_TRIP;
+            target = destination;
+        }
+
+        void finishTrip() {
+            phase = Phase.IDLE;
+            tripId = null;
+            rider = null;
+            target = null;
+            destination = null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ridehailing.driver.index;
+
+import com.ridehailing.common.util.GeoGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DriverPositionTableTest {
+
+    private static final byte ONLINE = 1;
+    private static final byte BUSY = 2;
+
+    @Test
+    void findsNearestOnlineDriversInDistanceOrder() {
+        DriverPositionTable table = new DriverPositionTable(new GeoGrid(1.0));
+        table.upsert(1, 37.7749, -122.4194, ONLINE, 1000);
+        table.upsert(2, 37.7849, -122.4194, ONLINE, 1000);
+        table.upsert(3, 37.7759, -122.4194, BUSY, 1000);
+        table.upsert(4, 37.7799, -122.4194, ONLINE, 1000);
+        DriverPositionTable.Hits hits = new DriverPositionTable.Hits();
+
+        int count = table.findNearest(37.7749, -122.4194, 5.0, 10, ONLINE, 0, hits);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(new long[]{hits.driverId(0), hits.driverId(1), hits.driverId(2)}).containsExactly(1, 4, 2);
+    }
+
+    @Test
+    void movesDriverBetweenCellsAndReusesRemovedSlots() {
+        DriverPositionTable table = new DriverPositionTable(new GeoGrid(1.0));
+        for (int i = 0; i < 5000; i++) {
+            table.upsert(i, 37.70 + (i % 100) * 0.002, -122.45 + (i / 100) * 0.002, ONLINE, 1000);
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            table.remove(i);
+        }
+        table.upsert(1, 40.0, -75.0, ONLINE, 2000);
+        for (int i = 0; i < 5000; i += 2) {
+            table.upsert(10_000 + i, 37.70, -122.45, BUSY, 1000);
+        }
+        DriverPositionTable.Hits hits = new DriverPositionTable.Hits();
+
+        assertThat(table.size()).isEqualTo(5000);
+        assertThat(table.findNearest(40.0, -75.0, 1.0, 5, ONLINE, 0, hits)).isEqualTo(1);
+        assertThat(hits.driverId(0)).isEqualTo(1);
+        int count = table.findNearest(37.80, -122.35, 50.0, 5000, ONLINE, 0, hits);
+        Set<Long> found = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            found.add(hits.driverId(i));
+        }
+        assertThat(found).hasSize(2499).allMatch(id -> id % 2 == 1 && id != 1);
+    }
+
+    @Test
+    void sweepRemovesOnlyStaleDrivers() {
+        DriverPositionTable table = new DriverPositionTable(new GeoGrid(1.0));
+        table.upsert(1, 37.7749, -122.4194, ONLINE, 1000);
+        table.upsert(2, 37.7750, -122.4194, ONLINE, 5000);
+        table.upsert(3, 37.7751, -122.4194, ONLINE, 1000);
+        table.remove(3);
+        table.upsert(3, 37.7751, -122.4194, ONLINE, 6000);
+
+        assertThat(table.removeOlderThan(3000)).isEqualTo(1);
+
+        DriverPositionTable.Hits hits = new DriverPositionTable.Hits();
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.findNearest(37.7749, -122.4194, 1.0, 10, ONLINE, 0, hits)).isEqualTo(2);
+        assertThat(table.removeOlderThan(3000)).isZero();
+    }
+}
@@ -0,0 +1,86 @@
+package com.ridehailing.driver.pinglog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SegmentLogTest {
+
+    private static final long WINDOW_MILLIS = 3_600_000;
+    private static final long BASE_MILLIS = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rollsToNewSegmentWhenFull() {
+        try (SegmentLog log = new SegmentLog(directory, WINDOW_MILLIS, 2)) {
+            for (int i = 0; i < 5; i++) {
+                log.append(i, BASE_MILLIS + i, 37.7749 + i * 0.001, -122.4194, (byte) 1);
+            }
+
+            assertThat(log.segments()).hasSize(3);
+            List<Long> drivers = new ArrayList<>();
+            long visited = log.scan(0, Long.MAX_VALUE, (driverId, timestamp, latitude, longitude, status) -> {
+                drivers.add(driverId);
+                assertThat(timestamp).isEqualTo(BASE_MILLIS + driverId);
+                assertThat(latitude).isCloseTo(37.7749 + driverId * 0.001, within(1e-7));
+                assertThat(longitude).isCloseTo(-122.4194, within(1e-7));
+                assertThat(status).isEqualTo((byte) 1);
+            });
+            assertThat(visited).isEqualTo(5);
+            assertThat(drivers).containsExactly(0L, 1L, 2L, 3L, 4L);
+        }
+    }
+
+    @Test
+    void continuesAfterExistingSegmentsOnRestart() {
+        try (SegmentLog log = new SegmentLog(directory, WINDOW_MILLIS, 4)) {
+            log.append(1, BASE_MILLIS, 37.0, -122.0, (byte) 0);
+            log.append(2, BASE_MILLIS + 1, 37.0, -122.0, (byte) 0);
+        }
+        List<Path> before;
+        try (SegmentLog log = new SegmentLog(directory, WINDOW_MILLIS, 4)) {
+            before = log.segments();
+            log.append(3, BASE_MILLIS + 2, 37.0, -122.0, (byte) 0);
+
+            assertThat(log.segments()).hasSize(before.size() + 1).containsAll(before);
+            List<Long> drivers = new ArrayList<>();
+            log.scan(0, Long.MAX_VALUE, (driverId, timestamp, latitude, longitude, status) -> drivers.add(driverId));
+            assertThat(drivers).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    void scanKeepsOnlyRecordsInRange() {
+        // Segments are chosen by append time, so the records carry times around now
+        long now = System.currentTimeMillis();
+        try (SegmentLog log = new SegmentLog(directory, WINDOW_MILLIS, 16)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(i, now + i, 37.0, -122.0, (byte) 0);
+            }
+
+            List<Long> drivers = new ArrayList<>();
+            log.scan(now + 3, now + 6, (driverId, timestamp, latitude, longitude, status) -> drivers.add(driverId));
+            assertThat(drivers).containsExactly(3L, 4L, 5L);
+        }
+    }
+
+    @Test
+    void keepsActiveSegmentWhenDeletingOldOnes() throws Exception {
+        try (SegmentLog log = new SegmentLog(directory, WINDOW_MILLIS, 4)) {
+            Files.createFile(directory.resolve(String.format("pings-%013d-0000.seg", 0L)));
+            log.append(1, BASE_MILLIS, 37.0, -122.0, (byte) 0);
+
+            assertThat(log.deleteSegmentsBefore(Long.MAX_VALUE)).isEqualTo(1);
+            assertThat(log.segments()).hasSize(1);
+        }
+    }
+}
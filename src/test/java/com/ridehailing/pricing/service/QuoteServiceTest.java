@@ -0,0 +1,98 @@
+package com.ridehailing.pricing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ridehailing.common.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuoteServiceTest {
+
+    private static final double FROM_LAT = 37.7749;
+    private static final double FROM_LON = -122.4194;
+    private static final double TO_LAT = 37.8044;
+    private static final double TO_LON = -122.2712;
+
+    private final Map<String, String> redis = new HashMap<>();
+    private StringRedisTemplate redisTemplate;
+    private QuoteService quoteService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        doAnswer(call -> redis.put(call.getArgument(0), call.getArgument(1)))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        when(values.get(anyString())).thenAnswer(call -> redis.get(call.<String>getArgument(0)));
+        when(values.getAndDelete(anyString())).thenAnswer(call -> redis.remove(call.<String>getArgument(0)));
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        quoteService = new QuoteService(redisTemplate, new ObjectMapper().findAndRegisterModules(), 120);
+    }
+
+    @Test
+    void redeemsQuoteOnlyOnce() {
+        PriceQuote quote = issue(1L);
+
+        PriceQuote redeemed = quoteService.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT, TO_LON);
+
+        assertThat(redeemed).isEqualTo(quote);
+        assertThatThrownBy(() -> quoteService.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT, TO_LON))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("already used");
+    }
+
+    @Test
+    void rejectedRedemptionLeavesQuoteUsable() {
+        PriceQuote quote = issue(1L);
+
+        assertThatThrownBy(() -> quoteService.redeem(quote.quoteId(), 2L, FROM_LAT, FROM_LON, TO_LAT, TO_LON))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("another user");
+        assertThatThrownBy(() -> quoteService.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT + 0.01, TO_LON))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("does not match");
+
+        assertThat(quoteService.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT, TO_LON)).isEqualTo(quote);
+    }
+
+    @Test
+    void redeemsQuoteIssuedByAnotherNode() {
+        PriceQuote quote = issue(1L);
+        QuoteService otherNode = new QuoteService(redisTemplate, new ObjectMapper().findAndRegisterModules(), 120);
+
+        assertThat(otherNode.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT, TO_LON)).isEqualTo(quote);
+        assertThatThrownBy(() -> quoteService.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT, TO_LON))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void fallsBackToLocalCopyWhenRedisIsDown() {
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+        PriceQuote quote = issue(1L);
+
+        assertThat(quoteService.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT, TO_LON)).isEqualTo(quote);
+        assertThatThrownBy(() -> quoteService.redeem(quote.quoteId(), 1L, FROM_LAT, FROM_LON, TO_LAT, TO_LON))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private PriceQuote issue(Long userId) {
+        return quoteService.issue(userId, FROM_LAT, FROM_LON, TO_LAT, TO_LON,
+                new BigDecimal("18.40"), new BigDecimal("13.20"), BigDecimal.ONE);
+    }
+}
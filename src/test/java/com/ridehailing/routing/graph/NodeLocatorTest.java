@@ -0,0 +1,46 @@
+package com.ridehailing.routing.graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NodeLocatorTest {
+
+    private static final double CELL_SIZE_KM = 0.25;
+
+    @ParameterizedTest
+    @ValueSource(doubles = {-33.87, 0.0, 28.6, 30.0, 30.7, 37.77, 40.7, 51.5, 64.1})
+    void snapsToNearestNodeAtAnyLatitude(double latitude) {
+        RoadGraphBuilder builder = RoadGraph.builder();
+        int near = builder.addNode(latitude, -122.42);
+        int far = builder.addNode(latitude + 0.01, -122.42);
+        NodeLocator locator = new NodeLocator(builder.build(), CELL_SIZE_KM);
+
+        assertThat(locator.nearestNode(latitude + 0.001, -122.4201, 1.0)).isEqualTo(near);
+        assertThat(locator.nearestNode(latitude + 0.009, -122.4201, 1.0)).isEqualTo(far);
+    }
+
+    @Test
+    void findsNodesInNeighbouringCellsAcrossManyCells() {
+        RoadGraphBuilder builder = RoadGraph.builder();
+        for (int i = 0; i < 100; i++) {
+            builder.addNode(37.70 + i * 0.002, -122.45 + i * 0.002);
+        }
+        NodeLocator locator = new NodeLocator(builder.build(), CELL_SIZE_KM);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(locator.nearestNode(37.70 + i * 0.002 + 0.0002, -122.45 + i * 0.002, 0.5)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void returnsNotFoundBeyondMaxDistance() {
+        RoadGraphBuilder builder = RoadGraph.builder();
+        builder.addNode(51.5, -0.12);
+        NodeLocator locator = new NodeLocator(builder.build(), CELL_SIZE_KM);
+
+        assertThat(locator.nearestNode(51.6, -0.12, 1.0)).isEqualTo(NodeLocator.NOT_FOUND);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ridehailing.trip.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuctionAssignmentTest {
+
+    private static final double UNASSIGNED_COST = 10_000;
+    private static final double EPSILON = 0.01;
+
+    @Test
+    void givesContestedDriverToTheTripWithoutAlternative() {
+        // Both trips prefer driver 0, but only trip 1 has a second choice
+        int[] start = {0, 1, 3};
+        int[] driver = {0, 0, 1};
+        double[] cost = {100, 60, 80};
+
+        int[] result = AuctionAssignment.solve(2, 2, start, driver, cost, UNASSIGNED_COST, EPSILON);
+
+        assertThat(result).containsExactly(0, 1);
+    }
+
+    @Test
+    void leavesTripsUnmatchedWithoutCandidatesOrWhenOutbid() {
+        int[] start = {0, 1, 2, 2};
+        int[] driver = {0, 0};
+        double[] cost = {30, 50};
+
+        int[] result = AuctionAssignment.solve(3, 1, start, driver, cost, UNASSIGNED_COST, EPSILON);
+
+        assertThat(result).containsExactly(0, AuctionAssignment.UNASSIGNED, AuctionAssignment.UNASSIGNED);
+    }
+
+    @Test
+    void prefersLeavingTripUnmatchedOverCandidateCostlierThanThat() {
+        int[] result = AuctionAssignment.solve(1, 1, new int[]{0, 1}, new int[]{0}, new double[]{UNASSIGNED_COST * 2},
+                UNASSIGNED_COST, EPSILON);
+
+        assertThat(result).containsExactly(AuctionAssignment.UNASSIGNED);
+    }
+
+    @Test
+    void matchesExhaustiveOptimumOnRandomProblems() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            int trips = 1 + random.nextInt(5);
+            int drivers = trips + random.nextInt(3);
+            double[][] matrix = new double[trips][drivers];
+            int[] start = new int[trips + 1];
+            int[] driver = new int[trips * drivers];
+            double[] cost = new double[trips * drivers];
+            int edges = 0;
+            for (int t = 0; t < trips; t++) {
+                start[t] = edges;
+                for (int d = 0; d < drivers; d++) {
+                    matrix[t][d] = Double.NaN;
+                    if (random.nextDouble() < 0.6) {
+                        matrix[t][d] = random.nextInt(600);
+                        driver[edges] = d;
+                        cost[edges] = matrix[t][d];
+                        edges++;
+                    }
+                }
+            }
+            start[trips] = edges;
+
+            int[] result = AuctionAssignment.solve(trips, drivers, start, driver, cost, UNASSIGNED_COST, EPSILON);
+
+            boolean[] taken = new boolean[drivers];
+            double total = 0;
+            for (int t = 0; t < trips; t++) {
+                if (result[t] == AuctionAssignment.UNASSIGNED) {
+                    total += UNASSIGNED_COST;
+                } else {
+                    assertThat(matrix[t][result[t]]).isNotNaN();
+                    assertThat(taken[result[t]]).isFalse();
+                    taken[result[t]] = true;
+                    total += matrix[t][result[t]];
+                }
+            }
+            assertThat(total).isLessThanOrEqualTo(optimum(matrix, 0, new boolean[drivers]) + trips * EPSILON);
+        }
+    }
+
+    private static double optimum(double[][] matrix, int trip, boolean[] taken) {
+        if (trip == matrix.length) {
+            return 0;
+        }
+        double best = UNASSIGNED_COST + optimum(matrix, trip + 1, taken);
+        for (int d = 0; d < taken.length; d++) {
+            if (!taken[d] && !Double.isNaN(matrix[trip][d])) {
+                taken[d] = true;
+                best = Math.min(best, matrix[trip][d] + optimum(matrix, trip + 1, taken));
+                taken[d] = false;
+            }
+        }
+        return best;
+    }
+}
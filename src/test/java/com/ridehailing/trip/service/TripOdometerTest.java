@@ -0,0 +1,79 @@
+package com.ridehailing.trip.service;
+
+import com.ridehailing.common.util.DistanceCalculator;
+import com.ridehailing.trip.trace.TracePoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TripOdometerTest {
+
+    private static final LocalDateTime STARTED_AT = LocalDateTime.of(2026, 3, 2, 8, 0);
+    private static final double STEP_DEG = 0.0005;
+
+    private final TripOdometer odometer = new TripOdometer(10, 160, 120);
+
+    @Test
+    void measuresLivePingsAndRejectsOutliers() {
+        odometer.start(7L, 70L);
+        for (int i = 0; i <= 60; i++) {
+            odometer.record(7L, 37.70 + i * STEP_DEG, -122.45, STARTED_AT.plusSeconds(5L * i));
+            if (i == 30) {
+                odometer.record(7L, 38.50, -122.45, STARTED_AT.plusSeconds(5L * i + 1));
+            }
+        }
+
+        TripOdometer.Reading reading = odometer.read(7L, 70L).orElseThrow();
+
+        assertThat(reading.distanceKm()).isCloseTo(straightKm(60), within(0.01));
+        assertThat(reading.acceptedPoints()).isEqualTo(61);
+        assertThat(reading.rejectedPoints()).isEqualTo(1);
+        assertThat(reading.elapsedSeconds()).isEqualTo(300);
+        assertThat(odometer.covers(reading, STARTED_AT, STARTED_AT.plusSeconds(330))).isTrue();
+        assertThat(odometer.covers(reading, STARTED_AT.minusMinutes(5), STARTED_AT.plusSeconds(330))).isFalse();
+        assertThat(odometer.read(7L, 71L)).isEmpty();
+    }
+
+    @Test
+    void replayedTraceMatchesLiveReading() {
+        odometer.start(7L, 70L);
+        List<TracePoint> trace = new ArrayList<>();
+        for (int i = 0; i <= 60; i++) {
+            LocalDateTime at = STARTED_AT.plusSeconds(5L * i);
+            odometer.record(7L, 37.70 + i * STEP_DEG, -122.45, at);
+            trace.add(new TracePoint(millis(at), 37.70 + i * STEP_DEG, -122.45));
+        }
+
+        assertThat(odometer.replay(trace)).contains(odometer.read(7L, 70L).orElseThrow());
+        assertThat(odometer.replay(List.of())).isEmpty();
+    }
+
+    @Test
+    void partialReadingDoesNotCoverTrip() {
+        odometer.start(7L, 70L);
+        // This node only saw the second half of the trip
+        for (int i = 30; i <= 60; i++) {
+            odometer.record(7L, 37.70 + i * STEP_DEG, -122.45, STARTED_AT.plusSeconds(5L * i));
+        }
+
+        TripOdometer.Reading reading = odometer.read(7L, 70L).orElseThrow();
+
+        assertThat(odometer.covers(reading, STARTED_AT, STARTED_AT.plusSeconds(300))).isFalse();
+        odometer.discard(7L, 70L);
+        assertThat(odometer.read(7L, 70L)).isEmpty();
+    }
+
+    private static double straightKm(int steps) {
+        return DistanceCalculator.calculateDistance(37.70, -122.45, 37.70 + steps * STEP_DEG, -122.45);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,63 @@
+package com.ridehailing.trip.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TraceCodecTest {
+
+    private static final double PRECISION = 0.5e-5;
+
+    @Test
+    void roundTripsIrregularTraces() {
+        Random random = new Random(7);
+        List<TracePoint> points = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+        double latitude = 37.7749;
+        double longitude = -122.4194;
+        TraceCodec.Encoder encoder = new TraceCodec.Encoder();
+        for (int i = 0; i < 500; i++) {
+            // Uneven intervals, reversals and the odd large jump
+            time += 1000 + random.nextInt(4000);
+            latitude += random.nextGaussian() * (i % 50 == 0 ? 0.05 : 0.0003);
+            longitude += random.nextGaussian() * (i % 50 == 0 ? 0.05 : 0.0003);
+            points.add(new TracePoint(time, latitude, longitude));
+            encoder.append(time, latitude, longitude);
+        }
+
+        List<TracePoint> decoded = TraceCodec.decode(encoder.toByteArray(), encoder.pointCount());
+
+        assertThat(decoded).hasSize(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertThat(decoded.get(i).recordedAtMillis()).isEqualTo(points.get(i).recordedAtMillis());
+            assertThat(decoded.get(i).latitude()).isCloseTo(points.get(i).latitude(), within(PRECISION));
+            assertThat(decoded.get(i).longitude()).isCloseTo(points.get(i).longitude(), within(PRECISION));
+        }
+        assertThat(encoder.decode()).isEqualTo(decoded);
+    }
+
+    @Test
+    void encodesSteadyMovementInFewBytesPerPoint() {
+        TraceCodec.Encoder encoder = new TraceCodec.Encoder();
+        for (int i = 0; i < 1000; i++) {
+            encoder.append(1_700_000_000_000L + i * 4000L, 37.7749 + i * 0.0001, -122.4194 - i * 0.0002);
+        }
+
+        assertThat(encoder.sizeInBytes()).isLessThan(4 * encoder.pointCount());
+        assertThat(encoder.decode().get(999).longitude()).isCloseTo(-122.4194 - 999 * 0.0002, within(PRECISION));
+    }
+
+    @Test
+    void roundTripsSinglePointAndSouthWesternCoordinates() {
+        TraceCodec.Encoder encoder = new TraceCodec.Encoder();
+        encoder.append(1L, -33.86785, -151.20732);
+
+        assertThat(TraceCodec.decode(encoder.toByteArray(), 1))
+                .containsExactly(new TracePoint(1L, -33.86785, -151.20732));
+    }
+}